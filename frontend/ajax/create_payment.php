@@ -16,7 +16,7 @@ if (!isAuthenticated()) {
 
 $input = json_decode(file_get_contents('php://input'), true);
 
-if (!isset($input['amount']) || !isset($input['currency'])) {
+if (!isset($input['orderId'])) {
     echo json_encode(['success' => false, 'message' => 'Missing required fields']);
     exit;
 }
@@ -169,12 +169,10 @@ document.getElementById('checkoutForm').addEventListener('submit', function(e) {
             orderNumber = data.orderNumber;
             sessionStorage.setItem('pendingOrderId', orderId);
 
-            // Create payment intent
-            const amount = <?php echo $cart['totalAmount'] * 100; ?>; // Convert to cents
+            // Create payment intent; the API charges the order total
             const callbackUrl = window.location.origin + window.location.pathname.replace('checkout.php', 'payment_callback.php');
 
             console.log('Payment Intent Details:');
-            console.log('- Amount:', amount);
             console.log('- Callback URL:', callbackUrl);
             console.log('- Order Number:', orderNumber);
 
@@ -184,8 +182,7 @@ document.getElementById('checkoutForm').addEventListener('submit', function(e) {
                     'Content-Type': 'application/json',
                 },
                 body: JSON.stringify({
-                    amount: amount,
-                    currency: 'KES',
+                    orderId: orderId,
                     description: 'Order #' + orderNumber,
                     email: document.getElementById('email').value,
                     callbackUrl: callbackUrl
@@ -0,0 +1,112 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.config.JwtProperties;
+import com.ecommerce.clothesshop.model.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done by JwtAuthenticationFilter on every authenticated request, now and
+ * as it was before tokens were verified once per request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"false", "true"})
+    private boolean tokenCache;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private LegacyTokenReader legacyTokenReader;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("benchmark-secret-key-that-is-long-enough-for-hs512-signatures-0123456789");
+        properties.setExpiration(86_400_000L);
+        properties.setRefreshExpiration(604_800_000L);
+        properties.getTokenCache().setEnabled(tokenCache);
+
+        jwtTokenProvider = new JwtTokenProvider(properties);
+        legacyTokenReader = new LegacyTokenReader(properties);
+        token = jwtTokenProvider.generateAccessToken(42L, "customer@example.com", UserRole.CUSTOMER, "benchmark-session");
+    }
+
+    /**
+     * The filter's per-request path: one verification yielding the principal,
+     * or a digest lookup when the verified-token cache is on
+     */
+    @Benchmark
+    public Optional<UserPrincipal> parseToken() {
+        return jwtTokenProvider.parseToken(token);
+    }
+
+    /**
+     * The filter's former per-request path: validate, then read email, user id and role,
+     * each with its own key and parser. Unaffected by the tokenCache parameter.
+     */
+    @Benchmark
+    public void validateThenReadClaims(Blackhole blackhole) {
+        blackhole.consume(legacyTokenReader.validateToken(token));
+        blackhole.consume(legacyTokenReader.getEmailFromToken(token));
+        blackhole.consume(legacyTokenReader.getUserIdFromToken(token));
+        blackhole.consume(legacyTokenReader.getRoleFromToken(token));
+    }
+
+    /**
+     * Copy of the token accessors JwtTokenProvider used to offer, kept so the
+     * before and after numbers can both be reproduced
+     */
+    private static final class LegacyTokenReader {
+        private final JwtProperties jwtProperties;
+
+        private LegacyTokenReader(JwtProperties jwtProperties) {
+            this.jwtProperties = jwtProperties;
+        }
+
+        private SecretKey getSigningKey() {
+            return Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Claims getClaimsFromToken(String token) {
+            return Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+
+        boolean validateToken(String token) {
+            Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token);
+            return true;
+        }
+
+        String getEmailFromToken(String token) {
+            return getClaimsFromToken(token).getSubject();
+        }
+
+        Long getUserIdFromToken(String token) {
+            return getClaimsFromToken(token).get("userId", Long.class);
+        }
+
+        UserRole getRoleFromToken(String token) {
+            String roleStr = getClaimsFromToken(token).get("role", String.class);
+            return roleStr != null ? UserRole.valueOf(roleStr) : null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.AnalyticsDto.RevenueData;
+import com.ecommerce.clothesshop.model.Order;
+import com.ecommerce.clothesshop.repository.AnalyticsAggregates.PeriodRevenue;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revenue grouping over synthetic order histories.
+ * The legacy* benchmarks reproduce the former in-heap grouping over every order
+ * (what AnalyticsService did before aggregation moved into SQL) and serve as the
+ * baseline. fillDailyRevenue is the Java work left per request now that rows
+ * arrive pre-aggregated per day, so its cost should not grow with the order count.
+ * The 10M-order dataset needs a large heap; it is generated from pooled values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AnalyticsGroupingBenchmark {
+    private static final int HISTORY_DAYS = 730;
+    private static final int WINDOW_DAYS = 30;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int orders;
+
+    private List<Order> orderHistory;
+    private List<PeriodRevenue> dailyRows;
+    private LocalDate startDate;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Pool timestamps and amounts so 10M orders fit in memory
+        LocalDateTime[] timestamps = new LocalDateTime[100_000];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = now.minusMinutes(random.nextInt(HISTORY_DAYS * 24 * 60));
+        }
+        BigDecimal[] amounts = new BigDecimal[1_000];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = BigDecimal.valueOf(500 + random.nextInt(50_000), 2);
+        }
+
+        orderHistory = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            LocalDateTime createdAt = timestamps[random.nextInt(timestamps.length)];
+            orderHistory.add(Order.builder()
+                .createdAt(createdAt)
+                .updatedAt(timestamps[random.nextInt(timestamps.length)].isAfter(createdAt) ? now : createdAt)
+                .totalAmount(amounts[random.nextInt(amounts.length)])
+                .build());
+        }
+
+        startDate = LocalDate.now().minusDays(WINDOW_DAYS);
+        dailyRows = new ArrayList<>(WINDOW_DAYS);
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            dailyRows.add(PeriodRevenue.builder()
+                .periodStart(startDate.plusDays(i))
+                .revenue(amounts[i])
+                .build());
+        }
+    }
+
+    @Benchmark
+    public List<RevenueData> legacyLastNDaysRevenue() {
+        Map<LocalDate, BigDecimal> revenueMap = new LinkedHashMap<>();
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            revenueMap.put(startDate.plusDays(i), BigDecimal.ZERO);
+        }
+        orderHistory.forEach(order -> {
+            LocalDate date = order.getCreatedAt().toLocalDate();
+            if (!date.isBefore(startDate)) {
+                revenueMap.put(date, revenueMap.getOrDefault(date, BigDecimal.ZERO).add(order.getTotalAmount()));
+            }
+        });
+        return revenueMap.entrySet().stream()
+            .map(entry -> RevenueData.builder()
+                .date(entry.getKey())
+                .label(entry.getKey().toString())
+                .amount(entry.getValue())
+                .build())
+            .toList();
+    }
+
+    @Benchmark
+    public List<RevenueData> legacyMonthlyRevenue() {
+        Map<YearMonth, BigDecimal> monthRevenueMap = new TreeMap<>();
+        orderHistory.forEach(order -> {
+            YearMonth yearMonth = YearMonth.from(order.getCreatedAt());
+            monthRevenueMap.put(yearMonth,
+                monthRevenueMap.getOrDefault(yearMonth, BigDecimal.ZERO).add(order.getTotalAmount()));
+        });
+        return monthRevenueMap.entrySet().stream()
+            .map(entry -> RevenueData.builder()
+                .label(entry.getKey().toString())
+                .amount(entry.getValue())
+                .build())
+            .toList();
+    }
+
+    @Benchmark
+    public double legacyAverageProcessingTime() {
+        return orderHistory.stream()
+            .filter(o -> o.getUpdatedAt() != null)
+            .mapToLong(o -> ChronoUnit.HOURS.between(o.getCreatedAt(), o.getUpdatedAt()))
+            .average()
+            .orElse(0.0);
+    }
+
+    @Benchmark
+    public List<RevenueData> fillDailyRevenue() {
+        return AnalyticsService.fillDailyRevenue(dailyRows, startDate, WINDOW_DAYS);
+    }
+}
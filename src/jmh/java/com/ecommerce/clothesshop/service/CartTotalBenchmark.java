@@ -0,0 +1,47 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.CartItemResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart total computation, run on every cart view and cart mutation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class CartTotalBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int lines;
+
+    private List<CartItemResponse> items;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(lines);
+        for (long i = 0; i < lines; i++) {
+            BigDecimal price = BigDecimal.valueOf(1999 + i * 100, 2);
+            int quantity = 1 + (int) (i % 4);
+            items.add(CartItemResponse.builder()
+                .id(i)
+                .productId(i)
+                .productName("Product " + i)
+                .quantity(quantity)
+                .price(price)
+                .subtotal(price.multiply(BigDecimal.valueOf(quantity)))
+                .build());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotal() {
+        return CartService.calculateTotal(items);
+    }
+}
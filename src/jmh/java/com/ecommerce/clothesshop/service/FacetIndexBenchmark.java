@@ -0,0 +1,68 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductFilter;
+import com.ecommerce.clothesshop.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storefront filtering over the in-memory facet index
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class FacetIndexBenchmark {
+    private static final String[] CATEGORIES = {"SHIRTS", "PANTS", "DRESSES", "SHOES", "JACKETS", "ACCESSORIES"};
+    private static final String[] BRANDS = {"Nike", "Adidas", "Zara", "H&M", "Levi's", "Puma", "Gucci", "Uniqlo"};
+    private static final String[] GENDERS = {"MEN", "WOMEN", "UNISEX"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+    private static final String[] COLORS = {"Black", "White", "Red", "Blue", "Green", "Grey", "Beige"};
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    private FacetIndex index;
+    private ProductFilter filter;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            catalog.add(Product.builder()
+                .id((long) i)
+                .category(CATEGORIES[i % CATEGORIES.length])
+                .brand(BRANDS[(i / 3) % BRANDS.length])
+                .gender(GENDERS[(i / 7) % GENDERS.length])
+                .size(SIZES[(i / 11) % SIZES.length])
+                .color(COLORS[(i / 13) % COLORS.length])
+                .price(BigDecimal.valueOf(500 + (i * 37L) % 20_000, 2))
+                .isActive(true)
+                .build());
+        }
+        index = new FacetIndex(catalog);
+        filter = ProductFilter.builder()
+            .category("SHIRTS")
+            .gender("MEN")
+            .minPrice(BigDecimal.valueOf(20))
+            .maxPrice(BigDecimal.valueOf(120))
+            .build();
+    }
+
+    @Benchmark
+    public BitSet match() {
+        return index.match(filter);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Integer>> counts() {
+        return index.counts(filter);
+    }
+}
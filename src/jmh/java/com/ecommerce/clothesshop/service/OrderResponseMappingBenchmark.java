@@ -0,0 +1,79 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.OrderResponse;
+import com.ecommerce.clothesshop.model.Order;
+import com.ecommerce.clothesshop.model.OrderItem;
+import com.ecommerce.clothesshop.model.OrderStatus;
+import com.ecommerce.clothesshop.model.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping orders and their items to OrderResponse, as done for every
+ * order returned by the order listing endpoints
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class OrderResponseMappingBenchmark {
+    private static final int ORDERS = 10_000;
+
+    @Param({"1", "5", "20"})
+    private int itemsPerOrder;
+
+    private List<Order> orderList;
+    private List<List<OrderItem>> itemLists;
+
+    @Setup
+    public void setUp() {
+        orderList = new ArrayList<>(ORDERS);
+        itemLists = new ArrayList<>(ORDERS);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (long id = 1; id <= ORDERS; id++) {
+            orderList.add(Order.builder()
+                .id(id)
+                .userId(id % 500)
+                .orderNumber("ORD-" + id)
+                .totalAmount(BigDecimal.valueOf(4999, 2).multiply(BigDecimal.valueOf(itemsPerOrder)))
+                .status(OrderStatus.values()[(int) (id % OrderStatus.values().length)])
+                .paymentMethod(id % 2 == 0 ? "Card" : "M-Pesa")
+                .paymentStatus(PaymentStatus.PENDING)
+                .shippingAddress("1 Benchmark Road, Nairobi")
+                .createdAt(now.minusMinutes(id))
+                .updatedAt(now)
+                .build());
+
+            List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+            for (int i = 0; i < itemsPerOrder; i++) {
+                items.add(OrderItem.builder()
+                    .id(id * 100 + i)
+                    .orderId(id)
+                    .productId((long) i)
+                    .productName("Product " + i)
+                    .quantity(1 + i % 3)
+                    .price(BigDecimal.valueOf(4999, 2))
+                    .createdAt(now)
+                    .build());
+            }
+            itemLists.add(items);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void toOrderResponse(Blackhole blackhole) {
+        for (int i = 0; i < orderList.size(); i++) {
+            OrderResponse response = OrderService.toOrderResponse(orderList.get(i), itemLists.get(i));
+            blackhole.consume(response);
+        }
+    }
+}
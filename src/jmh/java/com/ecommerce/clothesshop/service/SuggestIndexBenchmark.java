@@ -0,0 +1,72 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.SuggestionResponse;
+import com.ecommerce.clothesshop.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-box autocomplete lookups and single-product updates of the suggestion tree
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class SuggestIndexBenchmark {
+    private static final String[] CATEGORIES = {"SHIRTS", "PANTS", "DRESSES", "SHOES", "JACKETS", "ACCESSORIES"};
+    private static final String[] BRANDS = {"Nike", "Adidas", "Zara", "H&M", "Levi's", "Puma", "Gucci", "Uniqlo"};
+    private static final String[] STYLES = {"Classic", "Slim Fit", "Oversized", "Vintage", "Essential", "Premium", "Relaxed"};
+    private static final String[] COLORS = {"Black", "White", "Red", "Blue", "Green", "Grey", "Beige"};
+    private static final String[] ITEMS = {"T-Shirt", "Oxford Shirt", "Chinos", "Jeans", "Maxi Dress", "Sneakers", "Bomber Jacket", "Cap"};
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    private List<Product> catalog;
+    private SuggestIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        catalog = new ArrayList<>(products);
+        SuggestIndex.Changes changes = new SuggestIndex.Changes();
+        for (int i = 0; i < products; i++) {
+            Product product = Product.builder()
+                .id((long) i)
+                .name(STYLES[i % STYLES.length] + " " + COLORS[(i / 7) % COLORS.length] + " "
+                    + ITEMS[(i / 3) % ITEMS.length] + " " + i)
+                .brand(BRANDS[(i / 5) % BRANDS.length])
+                .category(CATEGORIES[i % CATEGORIES.length])
+                .price(BigDecimal.TEN)
+                .isActive(true)
+                .build();
+            catalog.add(product);
+            changes.add(product, i % 97);
+        }
+        index = SuggestIndex.EMPTY.apply(changes);
+    }
+
+    @Benchmark
+    public List<SuggestionResponse> suggestShortPrefix() {
+        return index.suggest("sh", SuggestIndex.MAX_SUGGESTIONS);
+    }
+
+    @Benchmark
+    public List<SuggestionResponse> suggestLongPrefix() {
+        return index.suggest("slim fit bl", SuggestIndex.MAX_SUGGESTIONS);
+    }
+
+    /**
+     * One product selling a unit, as after an order
+     */
+    @Benchmark
+    public SuggestIndex recordSale() {
+        Product product = catalog.get(next++ % catalog.size());
+        return index.apply(new SuggestIndex.Changes().replace(product, 0, product, 1));
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of the product listing as JSON, gzipped JSON and CBOR.
+ * The encoded sizes are printed once per trial, so the CPU cost can be read
+ * next to the bytes it saves on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    private static final String[] CATEGORIES = {"SHIRTS", "PANTS", "DRESSES", "SHOES", "JACKETS", "ACCESSORIES"};
+    private static final String[] BRANDS = {"Nike", "Adidas", "Zara", "H&M", "Levi's", "Puma", "Gucci", "Uniqlo"};
+    private static final String[] COLORS = {"Black", "White", "Red", "Blue", "Green", "Grey", "Beige"};
+
+    @Param({"24", "1000"})
+    private int products;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private List<ProductResponse> listing;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() {
+        listing = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            String color = COLORS[i % COLORS.length];
+            listing.add(ProductResponse.builder()
+                .id((long) i)
+                .name("Classic " + color + " Item " + i)
+                .description("Everyday " + color.toLowerCase() + " piece in soft cotton, regular fit")
+                .price(BigDecimal.valueOf(1999 + i, 2))
+                .category(CATEGORIES[i % CATEGORIES.length])
+                .subCategory("Casual")
+                .brand(BRANDS[(i / 5) % BRANDS.length])
+                .size("M")
+                .color(color)
+                .gender(i % 2 == 0 ? "MEN" : "WOMEN")
+                .stockQuantity(i % 50)
+                .imageUrl("https://cdn.example.com/products/" + i + ".jpg")
+                .isActive(true)
+                .build());
+        }
+        json = jsonMapper.writeValueAsBytes(listing);
+        cbor = cborMapper.writeValueAsBytes(listing);
+        System.out.printf("%n%d products: json=%d B, json+gzip=%d B, cbor=%d B, cbor+gzip=%d B%n",
+            products, json.length, gzip(json).length, cbor.length, gzip(cbor).length);
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return jsonMapper.writeValueAsBytes(listing);
+    }
+
+    /**
+     * What a compressed response costs when the encoded body is already cached
+     */
+    @Benchmark
+    public byte[] gzipCachedJson() {
+        return gzip(json);
+    }
+
+    @Benchmark
+    public byte[] cbor() {
+        return cborMapper.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public List<?> decodeJson() {
+        return jsonMapper.readValue(json, List.class);
+    }
+
+    @Benchmark
+    public List<?> decodeCbor() {
+        return cborMapper.readValue(cbor, List.class);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
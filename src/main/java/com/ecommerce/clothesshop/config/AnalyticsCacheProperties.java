@@ -0,0 +1,16 @@
+package com.ecommerce.clothesshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics.cache")
+public class AnalyticsCacheProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(60); // Snapshot age before a background refresh is triggered
+    private Duration maxStale = Duration.ofMinutes(5); // How long past the TTL a stale snapshot may still be served
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.clothesshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * HTTP caching of the public catalog endpoints
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catalog.http-cache")
+public class CatalogCacheProperties {
+    private Duration maxAge = Duration.ofSeconds(60); // How long browsers, CDNs and the frontend may reuse a response without asking
+    private Duration staleWhileRevalidate = Duration.ofSeconds(30); // How long past max-age a stale response may be served while revalidating
+    private EncodedBodies encodedBodies = new EncodedBodies();
+
+    /**
+     * Response bodies kept encoded (JSON or CBOR) per catalog version
+     */
+    @Data
+    public static class EncodedBodies {
+        private boolean enabled = true;
+        private long maximumBytes = 64L * 1024 * 1024; // Total size of cached bodies; past this Caffeine evicts the bodies it judges least likely to be reused
+    }
+}
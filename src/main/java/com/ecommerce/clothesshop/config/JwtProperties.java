@@ -11,4 +11,14 @@ public class JwtProperties {
     private String secret;
     private Long expiration; // Access token expiration in milliseconds (default: 24 hours)
     private Long refreshExpiration; // Refresh token expiration in milliseconds (default: 7 days)
+    private TokenCache tokenCache = new TokenCache();
+
+    /**
+     * Cache of verified access tokens, keyed by token digest
+     */
+    @Data
+    public static class TokenCache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000; // Distinct tokens kept; past this Caffeine evicts the entries it judges least likely to be reused
+    }
 }
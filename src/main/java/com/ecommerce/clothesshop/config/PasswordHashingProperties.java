@@ -0,0 +1,13 @@
+package com.ecommerce.clothesshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+    private int threads = Runtime.getRuntime().availableProcessors(); // BCrypt is CPU-bound, one thread per core
+    private int queueCapacity = 64; // Hash requests allowed to wait; beyond this requests are shed with 503
+}
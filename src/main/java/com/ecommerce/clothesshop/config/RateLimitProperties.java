@@ -0,0 +1,57 @@
+package com.ecommerce.clothesshop.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long maxTrackedKeys = 100_000; // Buckets kept per limiter; past this Caffeine evicts the keys it judges least likely to be reused
+    private Duration idleEviction = Duration.ofMinutes(10); // Buckets untouched this long are dropped
+
+    // Per client IP, keyed by path pattern, e.g. security.rate-limit.routes[/api/auth/login].capacity=10.
+    // The first pattern that matches a request applies, so the order of entries matters.
+    private Map<String, BucketLimit> routes = defaultRoutes();
+
+    // Per email address, across login and registration
+    private BucketLimit email = new BucketLimit(5, 5, Duration.ofMinutes(1));
+
+    private LoginBackoff loginBackoff = new LoginBackoff();
+
+    private static Map<String, BucketLimit> defaultRoutes() {
+        Map<String, BucketLimit> routes = new LinkedHashMap<>();
+        routes.put("/api/auth/login", new BucketLimit(10, 10, Duration.ofMinutes(1)));
+        routes.put("/api/auth/register", new BucketLimit(5, 5, Duration.ofMinutes(1)));
+        routes.put("/api/auth/refresh", new BucketLimit(30, 30, Duration.ofMinutes(1)));
+        return routes;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BucketLimit {
+        private long capacity; // Burst size
+        private long refillTokens; // Tokens restored every refill period
+        private Duration refillPeriod;
+    }
+
+    /**
+     * Exponential backoff after repeated failed logins for one email
+     */
+    @Data
+    public static class LoginBackoff {
+        private int freeFailures = 3; // Failures allowed before any delay is imposed
+        private Duration baseDelay = Duration.ofSeconds(1); // Doubles with every further failure
+        private Duration maxDelay = Duration.ofMinutes(15);
+        private Duration resetAfter = Duration.ofHours(1); // Failure count is forgotten after this much quiet
+    }
+}
@@ -51,6 +51,9 @@ public class SecurityConfig {
                         // Admin endpoints - require admin role
                         .pathMatchers("/api/admin/**").hasRole("ADMIN")
 
+                        // Paystack webhook - authenticated by its HMAC signature instead
+                        .pathMatchers(HttpMethod.POST, "/api/checkout/paystack/webhook").permitAll()
+
                         // Protected endpoints - require authentication
                         .pathMatchers("/api/cart/**").authenticated()
                         .pathMatchers("/api/checkout/**").authenticated()
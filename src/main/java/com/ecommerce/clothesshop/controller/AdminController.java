@@ -1,19 +1,27 @@
 package com.ecommerce.clothesshop.controller;
 
 import com.ecommerce.clothesshop.dto.ApiResponse;
+import com.ecommerce.clothesshop.dto.OrderFilter;
 import com.ecommerce.clothesshop.dto.OrderResponse;
+import com.ecommerce.clothesshop.dto.PageResponse;
 import com.ecommerce.clothesshop.dto.ProductRequest;
 import com.ecommerce.clothesshop.dto.ProductResponse;
 import com.ecommerce.clothesshop.model.OrderStatus;
+import com.ecommerce.clothesshop.model.PaymentStatus;
+import com.ecommerce.clothesshop.service.AnalyticsCacheService;
 import com.ecommerce.clothesshop.service.OrderService;
 import com.ecommerce.clothesshop.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
@@ -21,6 +29,7 @@ import reactor.core.publisher.Mono;
 public class AdminController {
     private final ProductService productService;
     private final OrderService orderService;
+    private final AnalyticsCacheService analyticsCacheService;
     
     // Product Management
     @PostMapping("/products")
@@ -54,6 +63,8 @@ public class AdminController {
         @RequestParam Integer quantity
     ) {
         return productService.updateStock(id, quantity)
+            // The decrement has committed by now, so dashboards cannot cache the old stock
+            .doOnSuccess(product -> analyticsCacheService.onProductsChanged())
             .map(product -> ApiResponse.success("Stock updated", product))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -64,6 +75,56 @@ public class AdminController {
         return orderService.getAllOrders();
     }
     
+    /**
+     * Keyset-paginated order listing, newest first
+     * @param cursor nextCursor from the previous page, omitted for the first page
+     */
+    @GetMapping("/orders/page")
+    public Mono<ApiResponse<PageResponse<OrderResponse>>> getOrdersPage(
+        @RequestParam(required = false) OrderStatus status,
+        @RequestParam(required = false) PaymentStatus paymentStatus,
+        @RequestParam(required = false) String paymentMethod,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
+    ) {
+        OrderFilter filter = OrderFilter.builder()
+            .status(status)
+            .paymentStatus(paymentStatus)
+            .paymentMethod(paymentMethod)
+            .from(from)
+            .to(to)
+            .build();
+        
+        return orderService.getOrdersPage(filter, cursor, size)
+            .map(ApiResponse::success)
+            .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
+    }
+    
+    /**
+     * Stream every matching order as NDJSON or server-sent events, newest first.
+     * Rows are read from the database as the client consumes them.
+     */
+    @GetMapping(value = "/orders/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<OrderResponse> streamOrders(
+        @RequestParam(required = false) OrderStatus status,
+        @RequestParam(required = false) PaymentStatus paymentStatus,
+        @RequestParam(required = false) String paymentMethod,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        OrderFilter filter = OrderFilter.builder()
+            .status(status)
+            .paymentStatus(paymentStatus)
+            .paymentMethod(paymentMethod)
+            .from(from)
+            .to(to)
+            .build();
+        
+        return orderService.streamOrders(filter);
+    }
+    
     @PatchMapping("/orders/{orderId}/status")
     public Mono<ApiResponse<OrderResponse>> updateOrderStatus(
         @PathVariable Long orderId,
@@ -2,7 +2,8 @@ package com.ecommerce.clothesshop.controller;
 
 import com.ecommerce.clothesshop.dto.AnalyticsDto.*;
 import com.ecommerce.clothesshop.dto.ApiResponse;
-import com.ecommerce.clothesshop.service.AnalyticsService;
+import com.ecommerce.clothesshop.service.AnalyticsCacheService;
+import com.ecommerce.clothesshop.service.SalesRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -12,14 +13,15 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class AnalyticsController {
-    private final AnalyticsService analyticsService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final SalesRollupService salesRollupService;
 
     /**
      * Get dashboard summary with key metrics
      */
     @GetMapping("/dashboard")
     public Mono<ApiResponse<DashboardSummary>> getDashboardSummary() {
-        return analyticsService.getDashboardSummary()
+        return analyticsCacheService.getDashboardSummary()
             .map(data -> ApiResponse.success("Dashboard summary retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -32,7 +34,7 @@ public class AnalyticsController {
     public Mono<ApiResponse<RevenueAnalytics>> getRevenueAnalytics(
         @RequestParam(defaultValue = "daily") String period
     ) {
-        return analyticsService.getRevenueAnalytics(period)
+        return analyticsCacheService.getRevenueAnalytics(period)
             .map(data -> ApiResponse.success("Revenue analytics retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -42,7 +44,7 @@ public class AnalyticsController {
      */
     @GetMapping("/orders")
     public Mono<ApiResponse<OrderAnalytics>> getOrderAnalytics() {
-        return analyticsService.getOrderAnalytics()
+        return analyticsCacheService.getOrderAnalytics()
             .map(data -> ApiResponse.success("Order analytics retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -52,7 +54,7 @@ public class AnalyticsController {
      */
     @GetMapping("/products")
     public Mono<ApiResponse<ProductAnalytics>> getProductAnalytics() {
-        return analyticsService.getProductAnalytics()
+        return analyticsCacheService.getProductAnalytics()
             .map(data -> ApiResponse.success("Product analytics retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -62,7 +64,7 @@ public class AnalyticsController {
      */
     @GetMapping("/customers")
     public Mono<ApiResponse<CustomerAnalytics>> getCustomerAnalytics() {
-        return analyticsService.getCustomerAnalytics()
+        return analyticsCacheService.getCustomerAnalytics()
             .map(data -> ApiResponse.success("Customer analytics retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
@@ -72,8 +74,18 @@ public class AnalyticsController {
      */
     @GetMapping("/payments")
     public Mono<ApiResponse<PaymentAnalytics>> getPaymentAnalytics() {
-        return analyticsService.getPaymentAnalytics()
+        return analyticsCacheService.getPaymentAnalytics()
             .map(data -> ApiResponse.success("Payment analytics retrieved", data))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
+
+    /**
+     * Rebuild the daily sales rollup from the orders table
+     */
+    @PostMapping("/rollup/rebuild")
+    public Mono<ApiResponse<Long>> rebuildSalesRollup() {
+        return salesRollupService.rebuild()
+            .map(rows -> ApiResponse.success("Sales rollup rebuilt", rows))
+            .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
+    }
 }
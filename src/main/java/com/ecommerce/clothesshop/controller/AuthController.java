@@ -1,17 +1,22 @@
 package com.ecommerce.clothesshop.controller;
 
 import com.ecommerce.clothesshop.dto.*;
+import com.ecommerce.clothesshop.exception.ServiceOverloadedException;
+import com.ecommerce.clothesshop.exception.TooManyRequestsException;
 import com.ecommerce.clothesshop.security.UserPrincipal;
 import com.ecommerce.clothesshop.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/auth")
@@ -32,6 +37,12 @@ public class AuthController {
                 .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
                 .onErrorResume(e -> {
                     log.error("Registration failed: {}", e.getMessage());
+                    if (e instanceof ServiceOverloadedException) {
+                        return Mono.just(serviceUnavailable());
+                    }
+                    if (e instanceof TooManyRequestsException tooManyRequests) {
+                        return Mono.just(tooManyRequests(tooManyRequests));
+                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
                 });
     }
@@ -48,6 +59,12 @@ public class AuthController {
                 .map(ResponseEntity::ok)
                 .onErrorResume(e -> {
                     log.error("Login failed: {}", e.getMessage());
+                    if (e instanceof ServiceOverloadedException) {
+                        return Mono.just(serviceUnavailable());
+                    }
+                    if (e instanceof TooManyRequestsException tooManyRequests) {
+                        return Mono.just(tooManyRequests(tooManyRequests));
+                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
                 });
     }
@@ -90,18 +107,40 @@ public class AuthController {
     }
 
     /**
-     * Logout (client-side token removal, this is just for consistency)
+     * Logout: revokes the session of the bearer token and/or the refresh token in the body
      * POST /api/auth/logout
      */
     @PostMapping("/logout")
-    public Mono<ResponseEntity<ApiResponse>> logout() {
+    public Mono<ResponseEntity<ApiResponse>> logout(
+            @AuthenticationPrincipal Mono<UserPrincipal> principalMono,
+            @RequestBody(required = false) RefreshTokenRequest request) {
         log.info("Logout request received");
 
-        return Mono.just(ResponseEntity.ok(
-                ApiResponse.builder()
-                        .success(true)
-                        .message("Logged out successfully. Please remove tokens from client.")
-                        .build()
-        ));
+        String refreshToken = request != null ? request.getRefreshToken() : null;
+        return principalMono
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(principal -> userService.logout(principal.orElse(null), refreshToken))
+                .thenReturn(ResponseEntity.ok(
+                        ApiResponse.builder()
+                                .success(true)
+                                .message("Logged out successfully. Please remove tokens from client.")
+                                .build()
+                ));
+    }
+
+    /**
+     * Shed load when password hashing is saturated; clients may retry shortly
+     */
+    private <T> ResponseEntity<T> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    private <T> ResponseEntity<T> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, TooManyRequestsException.retryAfterSeconds(e.getRetryAfter()))
+                .build();
     }
 }
@@ -7,6 +7,7 @@ import com.ecommerce.clothesshop.service.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
@@ -18,6 +19,7 @@ public class CartController {
     private final CartService cartService;
     
     @GetMapping("/{userId}")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     public Mono<ApiResponse<CartResponse>> getCart(@PathVariable Long userId) {
         return cartService.getOrCreateCart(userId)
             .map(ApiResponse::success)
@@ -25,6 +27,7 @@ public class CartController {
     }
     
     @PostMapping("/{userId}/items")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<ApiResponse<CartResponse>> addToCart(
         @PathVariable Long userId,
@@ -36,6 +39,7 @@ public class CartController {
     }
     
     @PutMapping("/{userId}/items/{itemId}")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     public Mono<ApiResponse<CartResponse>> updateCartItem(
         @PathVariable Long userId,
         @PathVariable Long itemId,
@@ -47,6 +51,7 @@ public class CartController {
     }
     
     @DeleteMapping("/{userId}/items/{itemId}")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     public Mono<ApiResponse<CartResponse>> removeFromCart(
         @PathVariable Long userId,
         @PathVariable Long itemId
@@ -57,6 +62,7 @@ public class CartController {
     }
     
     @DeleteMapping("/{userId}")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     public Mono<ApiResponse<Void>> clearCart(@PathVariable Long userId) {
         return cartService.clearCart(userId)
             .then(Mono.just(ApiResponse.<Void>success("Cart cleared", null)))
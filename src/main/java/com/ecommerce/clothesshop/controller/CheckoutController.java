@@ -1,12 +1,17 @@
 package com.ecommerce.clothesshop.controller;
 
 import com.ecommerce.clothesshop.dto.*;
-import com.ecommerce.clothesshop.model.PaymentStatus;
+import com.ecommerce.clothesshop.security.OwnershipGuard;
+import com.ecommerce.clothesshop.security.UserPrincipal;
 import com.ecommerce.clothesshop.service.OrderService;
+import com.ecommerce.clothesshop.service.PaymentEventService;
 import com.ecommerce.clothesshop.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
@@ -17,20 +22,28 @@ import reactor.core.publisher.Mono;
 public class CheckoutController {
     private final OrderService orderService;
     private final PaymentService paymentService;
+    private final PaymentEventService paymentEventService;
     
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #request.userId)")
     public Mono<ApiResponse<OrderResponse>> checkout(@Valid @RequestBody CheckoutRequest request) {
         return orderService.createOrder(request)
             .map(order -> ApiResponse.success("Order created successfully", order))
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
     
+    /**
+     * Start paying for one of the caller's orders; the amount charged is the order total
+     */
     @PostMapping("/payment-intent")
     public Mono<ApiResponse<PaymentIntentResponse>> createPaymentIntent(
-        @Valid @RequestBody PaymentIntentRequest request
+        @Valid @RequestBody PaymentIntentRequest request,
+        @AuthenticationPrincipal UserPrincipal principal
     ) {
-        return paymentService.initializePayment(request)
+        Long ownerId = OwnershipGuard.ownerScope(principal);
+        return orderService.getOrderById(request.getOrderId(), ownerId)
+            .flatMap(order -> paymentService.initializePayment(paymentService.forOrder(request, order)))
             .map(paystackResponse -> {
                 PaymentIntentResponse response = paymentService.toPaymentIntentResponse(paystackResponse);
                 return ApiResponse.success("Payment initialized successfully", response);
@@ -38,14 +51,18 @@ public class CheckoutController {
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
     
+    /**
+     * Answered from the payments Paystack has reported through the webhook; clients poll
+     * this until the charge arrives
+     */
     @PostMapping("/verify-payment")
     public Mono<ApiResponse<Boolean>> verifyPayment(@RequestParam String reference) {
-        return paymentService.verifyPaymentStatus(reference)
+        return paymentEventService.isPaid(reference)
             .map(isSuccessful -> {
                 if (isSuccessful) {
                     return ApiResponse.success("Payment verified successfully", true);
                 } else {
-                    return ApiResponse.<Boolean>error("Payment verification failed");
+                    return ApiResponse.<Boolean>error("Payment not confirmed yet");
                 }
             })
             .onErrorResume(e -> Mono.just(ApiResponse.<Boolean>error(e.getMessage())));
@@ -54,28 +71,39 @@ public class CheckoutController {
     @GetMapping("/paystack/callback")
     public Mono<String> paystackCallback(@RequestParam String reference) {
         // This endpoint is called by Paystack after payment
-        // You can redirect to frontend with the reference
-        return paymentService.verifyPaymentStatus(reference)
+        // The webhook may arrive after the buyer does, in which case the frontend keeps polling
+        return paymentEventService.isPaid(reference)
             .map(success -> success ?
                 "redirect:/payment-success?reference=" + reference :
-                "redirect:/payment-failed?reference=" + reference);
+                "redirect:/payment-pending?reference=" + reference);
+    }
+
+    /**
+     * Paystack event notifications, signed with an HMAC-SHA512 of the body. An event is
+     * stored before the 200 goes out, so Paystack keeps redelivering anything we failed
+     * to store; applying it to its order happens afterwards.
+     */
+    @PostMapping("/paystack/webhook")
+    public Mono<ResponseEntity<Void>> paystackWebhook(
+        @RequestHeader(value = "x-paystack-signature", required = false) String signature,
+        @RequestBody byte[] payload
+    ) {
+        if (!paymentService.isValidWebhookSignature(payload, signature)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return paymentEventService.receive(payload)
+            .thenReturn(ResponseEntity.ok().build());
     }
 
     @PostMapping("/confirm-payment/{orderId}")
     public Mono<ApiResponse<OrderResponse>> confirmPayment(
         @PathVariable Long orderId,
-        @RequestParam String reference
+        @RequestParam String reference,
+        @AuthenticationPrincipal UserPrincipal principal
     ) {
-        return paymentService.verifyPaymentStatus(reference)
-            .flatMap(isSuccessful -> {
-                if (isSuccessful) {
-                    return orderService.updatePaymentStatus(orderId, PaymentStatus.COMPLETED, reference)
-                        .map(order -> ApiResponse.success("Payment confirmed", order));
-                } else {
-                    return orderService.updatePaymentStatus(orderId, PaymentStatus.FAILED, reference)
-                        .then(Mono.just(ApiResponse.<OrderResponse>error("Payment failed")));
-                }
-            })
+        Long ownerId = OwnershipGuard.ownerScope(principal);
+        return paymentEventService.confirm(orderId, ownerId, reference)
+            .map(order -> ApiResponse.success("Payment confirmed", order))
             .onErrorResume(e -> Mono.just(ApiResponse.<OrderResponse>error(e.getMessage())));
     }
 }
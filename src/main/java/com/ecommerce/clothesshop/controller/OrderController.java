@@ -3,7 +3,11 @@ package com.ecommerce.clothesshop.controller;
 import com.ecommerce.clothesshop.dto.ApiResponse;
 import com.ecommerce.clothesshop.dto.OrderResponse;
 import com.ecommerce.clothesshop.service.OrderService;
+import com.ecommerce.clothesshop.security.OwnershipGuard;
+import com.ecommerce.clothesshop.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -16,20 +20,27 @@ public class OrderController {
     private final OrderService orderService;
     
     @GetMapping("/{orderId}")
-    public Mono<ApiResponse<OrderResponse>> getOrderById(@PathVariable Long orderId) {
-        return orderService.getOrderById(orderId)
+    public Mono<ApiResponse<OrderResponse>> getOrderById(
+        @PathVariable Long orderId,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return orderService.getOrderById(orderId, OwnershipGuard.ownerScope(principal))
             .map(ApiResponse::success)
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
     
     @GetMapping("/number/{orderNumber}")
-    public Mono<ApiResponse<OrderResponse>> getOrderByNumber(@PathVariable String orderNumber) {
-        return orderService.getOrderByNumber(orderNumber)
+    public Mono<ApiResponse<OrderResponse>> getOrderByNumber(
+        @PathVariable String orderNumber,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return orderService.getOrderByNumber(orderNumber, OwnershipGuard.ownerScope(principal))
             .map(ApiResponse::success)
             .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
     
     @GetMapping("/user/{userId}")
+    @PreAuthorize("@ownership.isSelfOrAdmin(authentication, #userId)")
     public Flux<OrderResponse> getOrdersByUserId(@PathVariable Long userId) {
         return orderService.getOrdersByUserId(userId);
     }
@@ -1,53 +1,209 @@
 package com.ecommerce.clothesshop.controller;
 
+import com.ecommerce.clothesshop.config.CatalogCacheProperties;
 import com.ecommerce.clothesshop.dto.ApiResponse;
+import com.ecommerce.clothesshop.dto.FacetedProductsResponse;
+import com.ecommerce.clothesshop.dto.PageResponse;
+import com.ecommerce.clothesshop.dto.ProductFilter;
 import com.ecommerce.clothesshop.dto.ProductRequest;
 import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.dto.SuggestionResponse;
+import com.ecommerce.clothesshop.service.ProductCatalog;
+import com.ecommerce.clothesshop.service.ProductBodyCache;
 import com.ecommerce.clothesshop.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class ProductController {
     private final ProductService productService;
+    private final ProductBodyCache productBodyCache;
+    private final CatalogCacheProperties cacheProperties;
+    
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
     
+    /**
+     * Active products as an array of ProductResponse, in JSON or CBOR as the Accept header prefers
+     */
     @GetMapping
-    public Flux<ProductResponse> getAllProducts() {
-        return productService.getAllActiveProducts();
+    public ResponseEntity<Mono<byte[]>> getAllProducts(ServerHttpRequest request) {
+        ProductBodyCache.Format format = negotiate(request);
+        return cacheable(format, productBodyCache.activeProducts(format));
     }
     
+    /**
+     * ApiResponse wrapping the ProductResponse, or an error response if there is no such product
+     */
     @GetMapping("/{id}")
-    public Mono<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-            .map(ApiResponse::success)
-            .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
+    public ResponseEntity<Mono<byte[]>> getProductById(@PathVariable Long id, ServerHttpRequest request) {
+        ProductBodyCache.Format format = negotiate(request);
+        return cacheable(format, productBodyCache.product(id, format));
     }
     
     @GetMapping("/search")
-    public Flux<ProductResponse> searchProducts(@RequestParam String keyword) {
-        return productService.searchProducts(keyword);
+    public Flux<ProductResponse> searchProducts(
+        @RequestParam String keyword,
+        @RequestParam(required = false) Integer page,
+        @RequestParam(required = false) Integer size
+    ) {
+        return productService.searchProducts(keyword, page, size);
+    }
+    
+    /**
+     * Autocomplete for the search box: product names, brands and categories, best sellers first
+     */
+    @GetMapping("/suggest")
+    public Flux<SuggestionResponse> suggest(
+        @RequestParam String prefix,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return productService.suggest(prefix, limit);
     }
     
     @GetMapping("/filter")
     public Flux<ProductResponse> filterProducts(
         @RequestParam(required = false) String category,
         @RequestParam(required = false) String brand,
-        @RequestParam(required = false) Double minPrice,
-        @RequestParam(required = false) Double maxPrice,
-        @RequestParam(required = false) String gender
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(required = false) String gender,
+        @RequestParam(required = false) String size,
+        @RequestParam(required = false) String color
+    ) {
+        return productService.filterProducts(
+            toFilter(category, brand, minPrice, maxPrice, gender, size, color));
+    }
+    
+    /**
+     * Keyset-paginated listing of active products with the same filters as /filter.
+     * Pages are capped at 100 products; total is the number of matches across all pages.
+     * @param sort price_asc, price_desc, newest, best_selling or relevance (keyword searches)
+     * @param cursor nextCursor from the previous page, omitted for the first page
+     * @param limit products per page
+     */
+    @GetMapping("/page")
+    public Mono<ApiResponse<PageResponse<ProductResponse>>> getProductsPage(
+        @RequestParam(required = false) String category,
+        @RequestParam(required = false) String brand,
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(required = false) String gender,
+        @RequestParam(required = false) String size,
+        @RequestParam(required = false) String color,
+        @RequestParam(required = false) String keyword,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return productService.getProductsPage(toFilter(category, brand, minPrice, maxPrice, gender, size, color),
+                keyword, sort, cursor, limit)
+            .map(ApiResponse::success)
+            .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
+    }
+    
+    /**
+     * Same filters as /filter, plus value counts per facet for the storefront sidebar
+     */
+    @GetMapping("/facets")
+    public Mono<ApiResponse<FacetedProductsResponse>> facetProducts(
+        @RequestParam(required = false) String category,
+        @RequestParam(required = false) String brand,
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(required = false) String gender,
+        @RequestParam(required = false) String size,
+        @RequestParam(required = false) String color
     ) {
-        return productService.filterProducts(category, brand, minPrice, maxPrice, gender);
+        return productService.facetProducts(toFilter(category, brand, minPrice, maxPrice, gender, size, color))
+            .map(ApiResponse::success)
+            .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage())));
     }
     
+    /**
+     * Products of the category, inactive ones included, as an array of ProductResponse
+     */
     @GetMapping("/category/{category}")
-    public Flux<ProductResponse> getProductsByCategory(@PathVariable String category) {
-        return productService.getProductsByCategory(category);
+    public ResponseEntity<Mono<byte[]>> getProductsByCategory(@PathVariable String category, ServerHttpRequest request) {
+        ProductBodyCache.Format format = negotiate(request);
+        return cacheable(format, productBodyCache.category(category, format));
+    }
+    
+    /**
+     * CBOR when the client lists application/cbor at least as highly as JSON, JSON otherwise
+     * (including when there is no Accept header)
+     */
+    private ProductBodyCache.Format negotiate(ServerHttpRequest request) {
+        double cbor = 0;
+        double json = 0;
+        for (MediaType accepted : request.getHeaders().getAccept()) {
+            if (accepted.equalsTypeAndSubtype(APPLICATION_CBOR)) {
+                cbor = Math.max(cbor, accepted.getQualityValue());
+            } else if (accepted.includes(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, accepted.getQualityValue());
+            }
+        }
+        return cbor > 0 && cbor >= json ? ProductBodyCache.Format.CBOR : ProductBodyCache.Format.JSON;
+    }
+    
+    /**
+     * Tag an encoded catalog read with the version of the snapshot it is read from. A
+     * request whose If-None-Match (or If-Modified-Since) still matches is answered 304 by
+     * Spring without subscribing to the body, so nothing is encoded. The bytes are
+     * written to the response as they are, without going through Jackson again.
+     * Each format gets its own ETag, and Vary tells shared caches to keep them apart.
+     */
+    private ResponseEntity<Mono<byte[]>> cacheable(ProductBodyCache.Format format, ProductBodyCache.Encoded encoded) {
+        MediaType contentType = format == ProductBodyCache.Format.CBOR ? APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        Mono<byte[]> body = encoded.body();
+        Optional<ProductCatalog.Version> version = encoded.version();
+        if (version.isEmpty()) {
+            // Catalog not loaded yet: served from the database with nothing to validate against
+            return ResponseEntity.ok()
+                .contentType(contentType)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+        }
+        String etag = version.get().etag();
+        if (format != ProductBodyCache.Format.JSON) {
+            etag = etag.substring(0, etag.length() - 1) + "-" + format.name().toLowerCase() + "\"";
+        }
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+            .eTag(etag)
+            .lastModified(version.get().lastModified())
+            .cacheControl(CacheControl.maxAge(cacheProperties.getMaxAge())
+                .cachePublic()
+                .staleWhileRevalidate(cacheProperties.getStaleWhileRevalidate()))
+            .body(body);
+    }
+    
+    private ProductFilter toFilter(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice,
+                                   String gender, String size, String color) {
+        return ProductFilter.builder()
+            .category(category)
+            .brand(brand)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .gender(gender)
+            .size(size)
+            .color(color)
+            .build();
     }
 }
\ No newline at end of file
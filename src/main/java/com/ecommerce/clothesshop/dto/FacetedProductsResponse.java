@@ -0,0 +1,20 @@
+package com.ecommerce.clothesshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProductsResponse {
+    private List<ProductResponse> products;
+    private Integer total;
+    // Facet name -> value -> matching products, counted with every other selected filter applied
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.clothesshop.dto;
+
+import com.ecommerce.clothesshop.model.OrderStatus;
+import com.ecommerce.clothesshop.model.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFilter {
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private String paymentMethod;
+    private LocalDate from; // Inclusive, by created_at date
+    private LocalDate to; // Inclusive, by created_at date
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.clothesshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // Opaque keyset cursor for the next page, null on the last page
+    private boolean hasMore;
+    private Integer size;
+    private Integer total; // Matching items across all pages when cheaply known, as a hint for page counts
+}
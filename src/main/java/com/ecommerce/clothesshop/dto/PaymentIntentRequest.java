@@ -1,6 +1,5 @@
 package com.ecommerce.clothesshop.dto;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,15 +11,16 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentIntentRequest {
-    @NotNull(message = "Amount is required")
-    private Long amount;
+    private Long amount; // Set from the order total; any value sent is ignored
     
-    @NotBlank(message = "Currency is required")
-    private String currency;
+    private String currency; // Set from the order; any value sent is ignored
     
     private String description;
 
     private String email; // Customer email (required for Paystack)
 
     private String callbackUrl; // URL to redirect after payment (optional, falls back to configured URL)
+
+    @NotNull(message = "Order id is required")
+    private Long orderId; // Order being paid for; lets the Paystack webhook apply the payment to it
 }
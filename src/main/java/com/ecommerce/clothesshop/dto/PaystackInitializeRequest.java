@@ -1,5 +1,6 @@
 package com.ecommerce.clothesshop.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -22,5 +24,8 @@ public class PaystackInitializeRequest {
     private String callbackUrl;
 
     private List<String> channels; // Payment channels: ["card", "bank", "ussd", "mobile_money"] (includes MPESA)
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> metadata; // Echoed back in webhook events, e.g. {"order_id": 42}
 }
 
@@ -0,0 +1,31 @@
+package com.ecommerce.clothesshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.JsonNode;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaystackWebhookEvent {
+    private String event; // e.g. "charge.success"
+    private PaystackWebhookData data;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaystackWebhookData {
+        private Long id;
+        private String status; // "success", "failed", etc.
+        private String reference;
+        private Long amount; // Amount in kobo
+        private String currency;
+
+        @JsonProperty("paid_at")
+        private String paidAt;
+
+        private JsonNode metadata; // What we sent on initialization, or "" when there was none
+    }
+}
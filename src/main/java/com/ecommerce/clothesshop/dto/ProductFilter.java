@@ -0,0 +1,22 @@
+package com.ecommerce.clothesshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private String category;
+    private String brand;
+    private String gender;
+    private String size;
+    private String color;
+    private BigDecimal minPrice; // Inclusive
+    private BigDecimal maxPrice; // Inclusive
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.clothesshop.dto;
+
+import java.util.Locale;
+
+/**
+ * Orderings of the paged product listing. Ties are always broken by product id.
+ */
+public enum ProductSort {
+    PRICE_ASC,
+    PRICE_DESC,
+    NEWEST,
+    BEST_SELLING,
+    RELEVANCE; // Search ranking; only meaningful with a keyword
+
+    /**
+     * Parse a request parameter such as "price_asc" or "best-selling"
+     */
+    public static ProductSort fromParam(String value) {
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.clothesshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String text;
+    private String type; // PRODUCT, BRAND or CATEGORY
+    private Long productId; // Set for PRODUCT suggestions only
+}
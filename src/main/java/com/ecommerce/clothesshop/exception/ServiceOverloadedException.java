@@ -0,0 +1,10 @@
+package com.ecommerce.clothesshop.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the request is shed rather than queued
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.clothesshop.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a caller exceeds a rate limit; retryAfter says when to try again
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retry-After header value: whole seconds rounded up, so a client honouring it is never early
+     */
+    public static String retryAfterSeconds(Duration wait) {
+        long seconds = wait.toSeconds() + (wait.toNanosPart() > 0 ? 1 : 0);
+        return String.valueOf(Math.max(1, seconds));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.clothesshop.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Paystack webhook event as received, kept until it has been applied to its order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("payment_events")
+public class PaymentEvent {
+    @Id
+    private Long id;
+    private String event; // e.g. "charge.success"
+    private String reference;
+    private Long orderId; // From the transaction metadata, or set when the buyer confirms the payment
+    private String status;
+    private Long amount; // In the smallest currency unit
+    private String currency;
+    private String payload; // Raw signed body
+    private Integer attempts;
+    private String lastError;
+    private String rejection; // Set when the payment did not match its order and was not applied
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.clothesshop.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("refresh_tokens")
+public class RefreshToken {
+    @Id
+    private Long id;
+    private Long userId;
+    private String tokenHash;
+    private String sessionId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.clothesshop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Aggregate rows returned by {@link AnalyticsRepository}.
+ * Each row is already grouped in the database, so result sizes depend on
+ * the number of groups (days, statuses, products) rather than on order volume.
+ */
+public class AnalyticsAggregates {
+
+    // Dashboard counters gathered in a single statement
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DashboardTotals {
+        private BigDecimal totalRevenue;
+        private Long totalOrders;
+        private Long pendingOrders;
+        private Long deliveredOrders;
+        private Long totalCustomers;
+        private Long totalProductsSold;
+    }
+
+    // Revenue grouped by day, ISO week or month
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodRevenue {
+        private LocalDate periodStart;
+        private String label;
+        private BigDecimal revenue;
+    }
+
+    // Order count per status
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusCount {
+        private String status;
+        private Long count;
+    }
+
+    // Product catalogue counters
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductTotals {
+        private Long totalProducts;
+        private Long activeProducts;
+        private Long lowStockActiveProducts;
+    }
+
+    // Per-product sales figures
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSales {
+        private Long productId;
+        private String productName;
+        private String category;
+        private BigDecimal price;
+        private Integer currentStock;
+        private Long unitsSold;
+    }
+
+    // Customer and order counters
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CustomerTotals {
+        private Long totalCustomers;
+        private Long activeCustomers;
+        private Long newCustomers;
+        private Long returningCustomers;
+        private BigDecimal totalSpent;
+    }
+
+    // Order count and value per payment status and method
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaymentBreakdown {
+        private String paymentStatus;
+        private String paymentMethod;
+        private Long count;
+        private BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.repository.AnalyticsAggregates.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only aggregation queries for the admin analytics endpoints.
+ * All grouping happens in PostgreSQL; only the aggregated rows are sent back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsRepository {
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Revenue per day, ISO week or month, read from the daily_sales_rollup table
+     * so the cost grows with the number of days rather than the number of orders
+     * @param unit one of "day", "week" or "month"
+     * @param since first day to include, or null for the whole history
+     */
+    public Flux<PeriodRevenue> findRevenueByPeriod(String unit, LocalDate since) {
+        String truncUnit = switch (unit) {
+            case "day", "week", "month" -> unit;
+            default -> throw new IllegalArgumentException("Unsupported period unit: " + unit);
+        };
+
+        String sql = "SELECT CAST(date_trunc('" + truncUnit + "', sales_date) AS DATE) AS period_start, " +
+                     "to_char(date_trunc('" + truncUnit + "', sales_date), 'IYYYIW') AS iso_week, " +
+                     "SUM(revenue) AS revenue " +
+                     "FROM daily_sales_rollup " +
+                     (since != null ? "WHERE sales_date >= :since " : "") +
+                     "GROUP BY 1, 2 ORDER BY 1";
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        if (since != null) {
+            spec = spec.bind("since", since);
+        }
+
+        return spec.map((row, metadata) -> PeriodRevenue.builder()
+                .periodStart(row.get("period_start", LocalDate.class))
+                .label("week".equals(truncUnit) ? "Week " + row.get("iso_week", String.class) : null)
+                .revenue(row.get("revenue", BigDecimal.class))
+                .build())
+            .all();
+    }
+
+    public Flux<StatusCount> countOrdersByStatus() {
+        return databaseClient.sql("SELECT status, COUNT(*) AS order_count FROM orders GROUP BY status ORDER BY status")
+            .map((row, metadata) -> StatusCount.builder()
+                .status(row.get("status", String.class))
+                .count(row.get("order_count", Long.class))
+                .build())
+            .all();
+    }
+
+    /**
+     * Average whole hours between creation and last update, matching ChronoUnit.HOURS truncation
+     */
+    public Mono<Double> averageProcessingHours() {
+        return databaseClient.sql("SELECT CAST(COALESCE(AVG(TRUNC(EXTRACT(EPOCH FROM (updated_at - created_at)) / 3600)), 0) AS DOUBLE PRECISION) AS avg_hours " +
+                                  "FROM orders WHERE updated_at IS NOT NULL")
+            .map((row, metadata) -> row.get("avg_hours", Double.class))
+            .one()
+            .defaultIfEmpty(0.0);
+    }
+
+    /**
+     * Every dashboard counter in one round-trip, scanning each table once
+     */
+    public Mono<DashboardTotals> findDashboardTotals() {
+        return databaseClient.sql("WITH order_totals AS (" +
+                                  "    SELECT COUNT(*) AS total_orders, " +
+                                  "           COALESCE(SUM(total_amount), 0) AS total_revenue, " +
+                                  "           COUNT(*) FILTER (WHERE status = 'PENDING') AS pending_orders, " +
+                                  "           COUNT(*) FILTER (WHERE status = 'DELIVERED') AS delivered_orders " +
+                                  "    FROM orders), " +
+                                  "user_totals AS (SELECT COUNT(*) AS total_customers FROM users), " +
+                                  "item_totals AS (SELECT COALESCE(SUM(quantity), 0) AS total_products_sold FROM order_items) " +
+                                  "SELECT * FROM order_totals, user_totals, item_totals")
+            .map((row, metadata) -> DashboardTotals.builder()
+                .totalRevenue(row.get("total_revenue", BigDecimal.class))
+                .totalOrders(row.get("total_orders", Long.class))
+                .pendingOrders(row.get("pending_orders", Long.class))
+                .deliveredOrders(row.get("delivered_orders", Long.class))
+                .totalCustomers(row.get("total_customers", Long.class))
+                .totalProductsSold(row.get("total_products_sold", Long.class))
+                .build())
+            .one();
+    }
+
+    public Mono<ProductTotals> findProductTotals(int lowStockThreshold) {
+        return databaseClient.sql("SELECT COUNT(*) AS total_products, " +
+                                  "COUNT(*) FILTER (WHERE is_active) AS active_products, " +
+                                  "COUNT(*) FILTER (WHERE is_active AND stock_quantity < :threshold) AS low_stock_active " +
+                                  "FROM products")
+            .bind("threshold", lowStockThreshold)
+            .map((row, metadata) -> ProductTotals.builder()
+                .totalProducts(row.get("total_products", Long.class))
+                .activeProducts(row.get("active_products", Long.class))
+                .lowStockActiveProducts(row.get("low_stock_active", Long.class))
+                .build())
+            .one();
+    }
+
+    /**
+     * Products ranked by units sold, including products that never sold
+     */
+    public Flux<ProductSales> findTopSellingProducts(int limit) {
+        return databaseClient.sql("SELECT p.id, p.name, p.category, p.price, p.stock_quantity, " +
+                                  "COALESCE(s.units_sold, 0) AS units_sold " +
+                                  "FROM products p " +
+                                  "LEFT JOIN (SELECT product_id, SUM(quantity) AS units_sold " +
+                                  "           FROM order_items GROUP BY product_id) s ON s.product_id = p.id " +
+                                  "ORDER BY units_sold DESC, p.id " +
+                                  "LIMIT :limit")
+            .bind("limit", limit)
+            .map((row, metadata) -> ProductSales.builder()
+                .productId(row.get("id", Long.class))
+                .productName(row.get("name", String.class))
+                .category(row.get("category", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .currentStock(row.get("stock_quantity", Integer.class))
+                .unitsSold(row.get("units_sold", Long.class))
+                .build())
+            .all();
+    }
+
+    /**
+     * Units sold per product, for products that sold at least once
+     */
+    public Flux<ProductSales> findUnitsSoldByProduct() {
+        return databaseClient.sql("SELECT product_id, SUM(quantity) AS units_sold FROM order_items GROUP BY product_id")
+            .map((row, metadata) -> ProductSales.builder()
+                .productId(row.get("product_id", Long.class))
+                .unitsSold(row.get("units_sold", Long.class))
+                .build())
+            .all();
+    }
+
+    public Flux<ProductSales> findLowStockProducts(int lowStockThreshold) {
+        return databaseClient.sql("SELECT id, name, category, price, stock_quantity FROM products " +
+                                  "WHERE stock_quantity < :threshold ORDER BY stock_quantity, id")
+            .bind("threshold", lowStockThreshold)
+            .map((row, metadata) -> ProductSales.builder()
+                .productId(row.get("id", Long.class))
+                .productName(row.get("name", String.class))
+                .category(row.get("category", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .currentStock(row.get("stock_quantity", Integer.class))
+                .build())
+            .all();
+    }
+
+    /**
+     * Customer counters; new customers are those who ordered after the given date
+     */
+    public Mono<CustomerTotals> findCustomerTotals(LocalDate newSince) {
+        return databaseClient.sql("SELECT (SELECT COUNT(*) FROM users) AS total_customers, " +
+                                  "COUNT(*) AS active_customers, " +
+                                  "COUNT(*) FILTER (WHERE last_order_date > :newSince) AS new_customers, " +
+                                  "COUNT(*) FILTER (WHERE order_count > 1) AS returning_customers, " +
+                                  "COALESCE(SUM(spent), 0) AS total_spent " +
+                                  "FROM (SELECT user_id, COUNT(*) AS order_count, SUM(total_amount) AS spent, " +
+                                  "             MAX(CAST(created_at AS DATE)) AS last_order_date " +
+                                  "      FROM orders GROUP BY user_id) per_customer")
+            .bind("newSince", newSince)
+            .map((row, metadata) -> CustomerTotals.builder()
+                .totalCustomers(row.get("total_customers", Long.class))
+                .activeCustomers(row.get("active_customers", Long.class))
+                .newCustomers(row.get("new_customers", Long.class))
+                .returningCustomers(row.get("returning_customers", Long.class))
+                .totalSpent(row.get("total_spent", BigDecimal.class))
+                .build())
+            .one();
+    }
+
+    public Flux<PaymentBreakdown> findPaymentBreakdown() {
+        return databaseClient.sql("SELECT payment_status, COALESCE(payment_method, 'Unknown') AS payment_method, " +
+                                  "COUNT(*) AS payment_count, COALESCE(SUM(total_amount), 0) AS total_amount " +
+                                  "FROM orders GROUP BY 1, 2 ORDER BY 1, 2")
+            .map((row, metadata) -> PaymentBreakdown.builder()
+                .paymentStatus(row.get("payment_status", String.class))
+                .paymentMethod(row.get("payment_method", String.class))
+                .count(row.get("payment_count", Long.class))
+                .totalAmount(row.get("total_amount", BigDecimal.class))
+                .build())
+            .all();
+    }
+}
@@ -1,7 +1,10 @@
 package com.ecommerce.clothesshop.repository;
 
+import com.ecommerce.clothesshop.dto.CartItemResponse;
 import com.ecommerce.clothesshop.model.CartItem;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,4 +12,11 @@ public interface CartItemRepository extends R2dbcRepository<CartItem, Long> {
     Flux<CartItem> findByCartId(Long cartId);
     Mono<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
     Mono<Void> deleteByCartId(Long cartId);
+
+    @Query("SELECT ci.id, ci.product_id, p.name AS product_name, ci.quantity, ci.price, " +
+           "ci.price * ci.quantity AS subtotal " +
+           "FROM cart_items ci JOIN products p ON p.id = ci.product_id " +
+           "WHERE ci.cart_id = :cartId " +
+           "ORDER BY ci.created_at, ci.id")
+    Flux<CartItemResponse> findCartItemResponses(@Param("cartId") Long cartId);
 }
@@ -1,9 +1,26 @@
 package com.ecommerce.clothesshop.repository;
 
 import com.ecommerce.clothesshop.model.OrderItem;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
 
 public interface OrderItemRepository extends R2dbcRepository<OrderItem, Long> {
     Flux<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT * FROM order_items WHERE order_id = ANY(:orderIds) ORDER BY order_id, id")
+    Flux<OrderItem> findByOrderIds(@Param("orderIds") Long[] orderIds);
+
+    /**
+     * Copy every line of a cart into order_items in one statement, using the
+     * current product name and the price captured in the cart
+     */
+    @Query("INSERT INTO order_items (order_id, product_id, product_name, quantity, price, created_at) " +
+           "SELECT :orderId, p.id, p.name, ci.quantity, ci.price, CURRENT_TIMESTAMP " +
+           "FROM cart_items ci JOIN products p ON p.id = ci.product_id " +
+           "WHERE ci.cart_id = :cartId " +
+           "ORDER BY ci.created_at, ci.id " +
+           "RETURNING *")
+    Flux<OrderItem> insertFromCart(@Param("orderId") Long orderId, @Param("cartId") Long cartId);
 }
@@ -2,12 +2,25 @@ package com.ecommerce.clothesshop.repository;
 
 import com.ecommerce.clothesshop.model.Order;
 import com.ecommerce.clothesshop.model.OrderStatus;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface OrderRepository extends R2dbcRepository<Order, Long> {
     Flux<Order> findByUserId(Long userId);
     Mono<Order> findByOrderNumber(String orderNumber);
+    Mono<Order> findByIdAndUserId(Long id, Long userId);
+    
+    /**
+     * Read an order and lock its row until the surrounding transaction ends
+     */
+    @Query("SELECT * FROM orders WHERE id = :id FOR UPDATE")
+    Mono<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    @Query("SELECT * FROM orders WHERE id = :id AND user_id = :userId FOR UPDATE")
+    Mono<Order> findByIdAndUserIdForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+    Mono<Order> findByOrderNumberAndUserId(String orderNumber, Long userId);
     Flux<Order> findByStatus(OrderStatus status);
 }
@@ -0,0 +1,63 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.dto.OrderFilter;
+import com.ecommerce.clothesshop.model.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtered order listing in (created_at DESC, id DESC) order, backed by idx_orders_created_id.
+ * Paging is keyset based: callers pass the (created_at, id) of the last row they saw.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchRepository {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final R2dbcEntityTemplate template;
+
+    public Flux<Order> findPage(OrderFilter filter, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        Criteria criteria = filterCriteria(filter);
+        if (afterCreatedAt != null && afterId != null) {
+            criteria = criteria.and(Criteria.where("createdAt").lessThan(afterCreatedAt)
+                .or(Criteria.where("createdAt").is(afterCreatedAt).and("id").lessThan(afterId)));
+        }
+
+        return template.select(Order.class)
+            .matching(Query.query(criteria).sort(NEWEST_FIRST).limit(limit))
+            .all();
+    }
+
+    public Flux<Order> findAll(OrderFilter filter) {
+        return template.select(Order.class)
+            .matching(Query.query(filterCriteria(filter)).sort(NEWEST_FIRST))
+            .all();
+    }
+
+    private Criteria filterCriteria(OrderFilter filter) {
+        Criteria criteria = Criteria.empty();
+        if (filter.getStatus() != null) {
+            criteria = criteria.and("status").is(filter.getStatus());
+        }
+        if (filter.getPaymentStatus() != null) {
+            criteria = criteria.and("paymentStatus").is(filter.getPaymentStatus());
+        }
+        if (filter.getPaymentMethod() != null) {
+            criteria = criteria.and("paymentMethod").is(filter.getPaymentMethod());
+        }
+        if (filter.getFrom() != null) {
+            criteria = criteria.and("createdAt").greaterThanOrEquals(filter.getFrom().atStartOfDay());
+        }
+        if (filter.getTo() != null) {
+            criteria = criteria.and("createdAt").lessThan(filter.getTo().plusDays(1).atStartOfDay());
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.model.PaymentEvent;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PaymentEventRepository extends R2dbcRepository<PaymentEvent, Long> {
+    Mono<PaymentEvent> findByEventAndReference(String event, String reference);
+
+    Mono<Boolean> existsByEventAndReferenceAndRejectionIsNull(String event, String reference);
+
+    /**
+     * Store an event unless it is already stored; empty for a redelivery of a stored event
+     */
+    @Query("INSERT INTO payment_events (event, reference, order_id, status, amount, currency, payload) " +
+           "VALUES (:event, :reference, :orderId, :status, :amount, :currency, :payload) " +
+           "ON CONFLICT (event, reference) DO NOTHING " +
+           "RETURNING *")
+    Mono<PaymentEvent> insertIfAbsent(@Param("event") String event, @Param("reference") String reference,
+                                      @Param("orderId") Long orderId, @Param("status") String status,
+                                      @Param("amount") Long amount, @Param("currency") String currency,
+                                      @Param("payload") String payload);
+
+    @Query("SELECT * FROM payment_events " +
+           "WHERE processed_at IS NULL AND order_id IS NOT NULL AND attempts < :maxAttempts " +
+           "ORDER BY id LIMIT :limit")
+    Flux<PaymentEvent> findPending(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /**
+     * Lock an event that has not been applied yet, for the rest of the transaction;
+     * empty once it has been applied, including by a transaction this one waited for
+     */
+    @Query("SELECT * FROM payment_events WHERE id = :id AND processed_at IS NULL FOR UPDATE")
+    Mono<PaymentEvent> lockUnprocessed(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE payment_events SET processed_at = CURRENT_TIMESTAMP, attempts = attempts + 1, last_error = NULL " +
+           "WHERE id = :id")
+    Mono<Integer> markProcessed(@Param("id") Long id);
+
+    /**
+     * Close an event without applying it, so it is neither retried nor reported as paid
+     */
+    @Modifying
+    @Query("UPDATE payment_events SET processed_at = CURRENT_TIMESTAMP, attempts = attempts + 1, rejection = :rejection " +
+           "WHERE id = :id")
+    Mono<Integer> markRejected(@Param("id") Long id, @Param("rejection") String rejection);
+
+    @Modifying
+    @Query("UPDATE payment_events SET attempts = attempts + 1, last_error = :error WHERE id = :id")
+    Mono<Integer> recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Attach an event to an order, unless it already belongs to a different one
+     */
+    @Modifying
+    @Query("UPDATE payment_events SET order_id = :orderId " +
+           "WHERE id = :id AND (order_id IS NULL OR order_id = :orderId)")
+    Mono<Integer> linkOrder(@Param("id") Long id, @Param("orderId") Long orderId);
+}
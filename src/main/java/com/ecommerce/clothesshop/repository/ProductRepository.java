@@ -1,32 +1,39 @@
 package com.ecommerce.clothesshop.repository;
 
 import com.ecommerce.clothesshop.model.Product;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface ProductRepository extends R2dbcRepository<Product, Long> {
     Flux<Product> findByCategory(String category);
     Flux<Product> findByBrand(String brand);
     Flux<Product> findByIsActiveTrue();
     
-    @Query("SELECT * FROM products WHERE is_active = true AND " +
-           "(:category IS NULL OR category = :category) AND " +
-           "(:brand IS NULL OR brand = :brand) AND " +
-           "(:minPrice IS NULL OR price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR price <= :maxPrice) AND " +
-           "(:gender IS NULL OR gender = :gender)")
-    Flux<Product> findByFilters(
-        @Param("category") String category,
-        @Param("brand") String brand,
-        @Param("minPrice") Double minPrice,
-        @Param("maxPrice") Double maxPrice,
-        @Param("gender") String gender
-    );
-    
     @Query("SELECT * FROM products WHERE is_active = true AND " +
            "(LOWER(name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Flux<Product> searchProducts(@Param("keyword") String keyword);
+    
+    /**
+     * Decrement stock only if enough is left, returning the updated product in the same
+     * round-trip; empty if there was not enough stock
+     */
+    @Query("UPDATE products SET stock_quantity = stock_quantity - :quantity, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id AND stock_quantity >= :quantity RETURNING *")
+    Mono<Product> decrementStockReturning(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    /**
+     * Decrement several products in one statement; ids and quantities are parallel arrays.
+     * Lines without enough stock are skipped, so a row count below ids.length means
+     * at least one line could not be fulfilled.
+     */
+    @Modifying
+    @Query("UPDATE products p SET stock_quantity = p.stock_quantity - d.quantity, updated_at = CURRENT_TIMESTAMP " +
+           "FROM UNNEST(:ids, :quantities) AS d(id, quantity) " +
+           "WHERE p.id = d.id AND p.stock_quantity >= d.quantity")
+    Mono<Integer> decrementStockBatch(@Param("ids") Long[] ids, @Param("quantities") Integer[] quantities);
 }
@@ -0,0 +1,51 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.dto.ProductFilter;
+import com.ecommerce.clothesshop.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Filtered listing of active products. Only the selected criteria are rendered into
+ * the WHERE clause, so each filter combination gets its own plan and can use the
+ * matching index instead of one catch-all "(:x IS NULL OR col = :x)" query.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+    private final R2dbcEntityTemplate template;
+
+    public Flux<Product> findActive(ProductFilter filter) {
+        Criteria criteria = Criteria.where("isActive").isTrue();
+        if (filter.getCategory() != null) {
+            criteria = criteria.and("category").is(filter.getCategory());
+        }
+        if (filter.getBrand() != null) {
+            criteria = criteria.and("brand").is(filter.getBrand());
+        }
+        if (filter.getGender() != null) {
+            criteria = criteria.and("gender").is(filter.getGender());
+        }
+        if (filter.getSize() != null) {
+            criteria = criteria.and("size").is(filter.getSize());
+        }
+        if (filter.getColor() != null) {
+            criteria = criteria.and("color").is(filter.getColor());
+        }
+        if (filter.getMinPrice() != null) {
+            criteria = criteria.and("price").greaterThanOrEquals(filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            criteria = criteria.and("price").lessThanOrEquals(filter.getMaxPrice());
+        }
+
+        return template.select(Product.class)
+            .matching(Query.query(criteria).sort(Sort.by("id")))
+            .all();
+    }
+}
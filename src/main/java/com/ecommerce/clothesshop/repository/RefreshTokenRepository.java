@@ -0,0 +1,30 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.model.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Mono;
+
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken, Long> {
+    Mono<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Mark a live token as used and return it; empty if it is unknown, expired or already used.
+     * The conditional UPDATE makes concurrent refreshes with the same token race-free.
+     */
+    @Query("UPDATE refresh_tokens SET revoked_at = CURRENT_TIMESTAMP " +
+           "WHERE token_hash = :tokenHash AND revoked_at IS NULL AND expires_at > CURRENT_TIMESTAMP " +
+           "RETURNING *")
+    Mono<RefreshToken> consume(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("UPDATE refresh_tokens SET revoked_at = CURRENT_TIMESTAMP " +
+           "WHERE session_id = :sessionId AND revoked_at IS NULL")
+    Mono<Integer> revokeSession(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE expires_at < CURRENT_TIMESTAMP")
+    Mono<Integer> deleteExpired();
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.clothesshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Access token ids (jti) and session ids that must be refused until they expire
+ */
+@Repository
+@RequiredArgsConstructor
+public class RevokedAccessTokenRepository {
+    private final DatabaseClient databaseClient;
+
+    public Mono<Long> revoke(String tokenId, LocalDateTime expiresAt) {
+        return databaseClient.sql("INSERT INTO revoked_access_tokens (token_id, expires_at) VALUES (:tokenId, :expiresAt) " +
+                                  "ON CONFLICT (token_id) DO UPDATE SET expires_at = GREATEST(revoked_access_tokens.expires_at, EXCLUDED.expires_at)")
+            .bind("tokenId", tokenId)
+            .bind("expiresAt", expiresAt)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Flux<String> findActiveTokenIds() {
+        return databaseClient.sql("SELECT token_id FROM revoked_access_tokens WHERE expires_at > CURRENT_TIMESTAMP")
+            .map((row, metadata) -> row.get("token_id", String.class))
+            .all();
+    }
+
+    public Mono<Long> deleteExpired() {
+        return databaseClient.sql("DELETE FROM revoked_access_tokens WHERE expires_at < CURRENT_TIMESTAMP")
+            .fetch()
+            .rowsUpdated();
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.clothesshop.repository;
+
+import com.ecommerce.clothesshop.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintenance statements for the daily_sales_rollup table.
+ * An order contributes one row per product category it contains; revenue and
+ * units are the sums of its order lines in that category.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+    private static final String ORDER_CONTRIBUTION =
+        "INSERT INTO daily_sales_rollup AS r (sales_date, status, payment_method, category, order_count, revenue, units) " +
+        "SELECT CAST(o.created_at AS DATE), d.status, COALESCE(o.payment_method, 'Unknown'), " +
+        "       COALESCE(p.category, 'UNCATEGORIZED'), " +
+        "       d.sign * COUNT(DISTINCT o.id), d.sign * SUM(oi.price * oi.quantity), d.sign * SUM(oi.quantity) " +
+        "FROM orders o " +
+        "JOIN order_items oi ON oi.order_id = o.id " +
+        "LEFT JOIN products p ON p.id = oi.product_id " +
+        "CROSS JOIN (VALUES %s) AS d(status, sign) " +
+        "WHERE o.id = :orderId " +
+        "GROUP BY 1, 2, 3, 4, d.sign " +
+        "ON CONFLICT (sales_date, status, payment_method, category) DO UPDATE SET " +
+        "    order_count = r.order_count + EXCLUDED.order_count, " +
+        "    revenue = r.revenue + EXCLUDED.revenue, " +
+        "    units = r.units + EXCLUDED.units";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Add an order's lines to the rollup under the given status
+     */
+    public Mono<Long> addOrder(Long orderId, OrderStatus status) {
+        return databaseClient.sql(String.format(ORDER_CONTRIBUTION, "(CAST(:toStatus AS VARCHAR), 1)"))
+            .bind("toStatus", status.name())
+            .bind("orderId", orderId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Move an order's contribution from one status bucket to another in one statement
+     */
+    public Mono<Long> moveOrder(Long orderId, OrderStatus fromStatus, OrderStatus toStatus) {
+        return databaseClient.sql(String.format(ORDER_CONTRIBUTION,
+                "(CAST(:fromStatus AS VARCHAR), -1), (CAST(:toStatus AS VARCHAR), 1)"))
+            .bind("fromStatus", fromStatus.name())
+            .bind("toStatus", toStatus.name())
+            .bind("orderId", orderId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Block incremental upserts until the surrounding transaction commits
+     */
+    public Mono<Void> lockForRebuild() {
+        return databaseClient.sql("LOCK TABLE daily_sales_rollup IN EXCLUSIVE MODE")
+            .then();
+    }
+
+    public Mono<Long> deleteAll() {
+        return databaseClient.sql("DELETE FROM daily_sales_rollup")
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Recompute every rollup row from orders and order_items
+     */
+    public Mono<Long> insertFromOrders() {
+        return databaseClient.sql("INSERT INTO daily_sales_rollup (sales_date, status, payment_method, category, order_count, revenue, units) " +
+                                  "SELECT CAST(o.created_at AS DATE), o.status, COALESCE(o.payment_method, 'Unknown'), " +
+                                  "       COALESCE(p.category, 'UNCATEGORIZED'), " +
+                                  "       COUNT(DISTINCT o.id), SUM(oi.price * oi.quantity), SUM(oi.quantity) " +
+                                  "FROM orders o " +
+                                  "JOIN order_items oi ON oi.order_id = o.id " +
+                                  "LEFT JOIN products p ON p.id = oi.product_id " +
+                                  "GROUP BY 1, 2, 3, 4")
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Boolean> isEmpty() {
+        return databaseClient.sql("SELECT NOT EXISTS (SELECT 1 FROM daily_sales_rollup) AS empty")
+            .map((row, metadata) -> row.get("empty", Boolean.class))
+            .one();
+    }
+}
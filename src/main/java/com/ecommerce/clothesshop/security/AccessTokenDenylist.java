@@ -0,0 +1,95 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.repository.RevokedAccessTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of revoked_access_tokens, so JwtAuthenticationFilter can reject revoked
+ * tokens without a database query. Revocations made on this instance apply immediately;
+ * revocations from other instances are picked up by the periodic reload.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessTokenDenylist implements SmartInitializingSingleton {
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    private volatile Set<String> revokedIds = ConcurrentHashMap.newKeySet();
+    // Local revocations since the current reload started, which its query may not have seen
+    private volatile Set<String> recentRevocations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * True when the principal's token or its whole login session has been revoked
+     */
+    public boolean isRevoked(UserPrincipal principal) {
+        Set<String> current = revokedIds;
+        return (principal.getTokenId() != null && current.contains(principal.getTokenId()))
+                || (principal.getSessionId() != null && current.contains(principal.getSessionId()));
+    }
+
+    /**
+     * Refuse a token id or session id until the given time, when every token it covers has expired
+     */
+    public Mono<Void> revoke(String tokenId, LocalDateTime expiresAt) {
+        return revokedAccessTokenRepository.revoke(tokenId, expiresAt)
+                .doOnSuccess(rows -> {
+                    revokedIds.add(tokenId);
+                    recentRevocations.add(tokenId);
+                })
+                .then();
+    }
+
+    /**
+     * Load the denylist before the server starts accepting requests, so revoked tokens are
+     * never let through by a still-empty copy. Runs once every singleton, the schema
+     * initializer included, is ready; a failure here stops startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+        log.info("Access token denylist loaded with {} entries", revokedIds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.denylist-refresh-ms:30000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Access token denylist reload failed", e);
+        }
+    }
+
+    /**
+     * Replace the copy with the table's current contents. Blocks until the query is done
+     * and runs one reload at a time, so an older result can never replace a newer one.
+     */
+    synchronized void reload() {
+        Set<String> racing = ConcurrentHashMap.newKeySet();
+        recentRevocations = racing;
+        Set<String> ids = revokedAccessTokenRepository.findActiveTokenIds()
+                .collect(Collectors.toCollection(ConcurrentHashMap::<String>newKeySet))
+                .block(LOAD_TIMEOUT);
+        ids.addAll(racing);
+        revokedIds = ids;
+    }
+
+    @Scheduled(cron = "${jwt.cleanup-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        revokedAccessTokenRepository.deleteExpired()
+                .subscribe(rows -> log.debug("Purged {} expired access token revocations", rows),
+                        e -> log.error("Access token revocation purge failed", e));
+    }
+}
@@ -22,13 +22,20 @@ import java.util.List;
 public class JwtAuthenticationFilter implements WebFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final AccessTokenDenylist accessTokenDenylist;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = extractTokenFromRequest(exchange.getRequest());
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            return authenticateWithToken(token, exchange, chain);
+        if (StringUtils.hasText(token)) {
+            // Single signature verification per request; refresh tokens carry no role.
+            // Revocation is checked against the in-memory denylist, never the database.
+            return jwtTokenProvider.parseToken(token)
+                    .filter(principal -> principal.getRole() != null)
+                    .filter(principal -> !accessTokenDenylist.isRevoked(principal))
+                    .map(principal -> authenticate(principal, exchange, chain))
+                    .orElseGet(() -> chain.filter(exchange));
         }
 
         return chain.filter(exchange);
@@ -48,29 +55,15 @@ public class JwtAuthenticationFilter implements WebFilter {
     }
 
     /**
-     * Authenticate user with token
+     * Authenticate user with the decoded token principal
      */
-    private Mono<Void> authenticateWithToken(String token, ServerWebExchange exchange, WebFilterChain chain) {
-        try {
-            String email = jwtTokenProvider.getEmailFromToken(token);
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
-            var role = jwtTokenProvider.getRoleFromToken(token);
+    private Mono<Void> authenticate(UserPrincipal principal, ServerWebExchange exchange, WebFilterChain chain) {
+        // Create authentication object
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()));
+        var authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
 
-            // Create authentication object
-            var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
-            var authentication = new UsernamePasswordAuthenticationToken(
-                    new UserPrincipal(userId, email, role),
-                    null,
-                    authorities
-            );
-
-            // Set authentication in context and continue filter chain
-            return chain.filter(exchange)
-                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
-
-        } catch (Exception e) {
-            log.error("Cannot set user authentication: {}", e.getMessage());
-            return chain.filter(exchange);
-        }
+        // Set authentication in context and continue filter chain
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
     }
 }
@@ -2,44 +2,97 @@ package com.ecommerce.clothesshop.security;
 
 import com.ecommerce.clothesshop.config.JwtProperties;
 import com.ecommerce.clothesshop.model.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
+
+    /**
+     * A verified token's principal and the epoch millis at which the token expires
+     */
+    private record VerifiedToken(UserPrincipal principal, long expiresAt) {
+    }
 
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    /**
+     * The signing key and parser are immutable and thread-safe, so both are built once
+     */
+    public JwtTokenProvider(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = jwtProperties.getTokenCache().isEnabled() ? buildTokenCache() : null;
+    }
+
+    /**
+     * Entries live until their token's own exp, so a cached token never outlives its validity
+     */
+    private Cache<String, VerifiedToken> buildTokenCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getTokenCache().getMaximumSize())
+                .expireAfter(Expiry.<String, VerifiedToken>creating((key, token) ->
+                        Duration.ofMillis(Math.max(0, token.expiresAt() - System.currentTimeMillis()))))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publish hit, miss and eviction counts as cache.* meters with cache=jwt.verified-tokens
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+        }
+    }
 
     /**
      * Generate access token
+     * @param sessionId the login session (refresh token family) the token belongs to
      */
-    public String generateAccessToken(Long userId, String email, UserRole role) {
+    public String generateAccessToken(Long userId, String email, UserRole role, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("email", email);
         claims.put("role", role.name());
+        claims.put("sid", sessionId);
 
         return createToken(claims, email, jwtProperties.getExpiration());
     }
 
     /**
      * Generate refresh token
+     * @param sessionId the login session (refresh token family) the token belongs to
      */
-    public String generateRefreshToken(Long userId, String email) {
+    public String generateRefreshToken(Long userId, String email, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("type", "refresh");
+        claims.put("sid", sessionId);
 
         return createToken(claims, email, jwtProperties.getRefreshExpiration());
     }
@@ -52,67 +105,58 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 .compact();
     }
 
     /**
-     * Get signing key from secret
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * Extract email from token
-     */
-    public String getEmailFromToken(String token) {
-        return getClaimsFromToken(token).getSubject();
-    }
-
-    /**
-     * Extract user ID from token
+     * Verify the token once and decode its identity claims.
+     * Empty when the token is invalid or expired; the role is null for refresh tokens.
+     * A token seen before is answered from the verified-token cache without re-verification.
      */
-    public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
-    }
+    public Optional<UserPrincipal> parseToken(String token) {
+        if (verifiedTokens == null) {
+            return verifyToken(token).map(VerifiedToken::principal);
+        }
 
-    /**
-     * Extract role from token
-     */
-    public UserRole getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        String roleStr = claims.get("role", String.class);
-        return roleStr != null ? UserRole.valueOf(roleStr) : null;
-    }
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached.principal());
+        }
 
-    /**
-     * Get all claims from token
-     */
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        // Only successfully verified tokens are cached
+        Optional<VerifiedToken> verified = verifyToken(token);
+        verified.ifPresent(value -> verifiedTokens.put(key, value));
+        return verified.map(VerifiedToken::principal);
     }
 
     /**
-     * Validate token
+     * Empty for any token that cannot be trusted, including a premature token or a claim
+     * of the wrong type, so a bad bearer token leaves the request unauthenticated
      */
-    public boolean validateToken(String token) {
+    private Optional<VerifiedToken> verifyToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = getClaimsFromToken(token);
+            String roleStr = claims.get("role", String.class);
+            Optional<UserRole> role = roleStr != null ? parseRole(roleStr) : Optional.empty();
+            if (roleStr != null && role.isEmpty()) {
+                return Optional.empty();
+            }
+            UserPrincipal principal = new UserPrincipal(
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    role.orElse(null),
+                    claims.getId(),
+                    claims.get("sid", String.class)
+            );
+            Date expiration = claims.getExpiration();
+            return Optional.of(new VerifiedToken(principal, expiration != null ? expiration.getTime() : 0L));
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -121,21 +165,39 @@ public class JwtTokenProvider {
             log.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.error("Unsupported JWT token");
+        } catch (JwtException ex) {
+            log.error("Rejected JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    private static Optional<UserRole> parseRole(String role) {
+        try {
+            return Optional.of(UserRole.valueOf(role));
+        } catch (IllegalArgumentException ex) {
+            log.error("Unknown role in JWT token: {}", role);
+            return Optional.empty();
+        }
     }
 
     /**
-     * Check if token is expired
+     * SHA-256 of the token, so raw bearer tokens are never held as cache keys
      */
-    public boolean isTokenExpired(String token) {
+    private static String digest(String token) {
         try {
-            Claims claims = getClaimsFromToken(token);
-            return claims.getExpiration().before(new Date());
-        } catch (ExpiredJwtException e) {
-            return true;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
+
+    /**
+     * Get all claims from token
+     */
+    private Claims getClaimsFromToken(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
 }
@@ -0,0 +1,103 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.config.RateLimitProperties;
+import com.ecommerce.clothesshop.config.RateLimitProperties.LoginBackoff;
+import com.ecommerce.clothesshop.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Per email throttling in front of UserService login and registration.
+ * Every attempt takes a token from the email's bucket, and after a few failed
+ * logins the email is locked out for an exponentially growing delay that resets
+ * on a successful login. Lives here rather than in RateLimitFilter because the
+ * email is only known once the request body has been decoded.
+ */
+@Slf4j
+@Component
+public class LoginAttemptThrottle {
+
+    /**
+     * Consecutive failed logins and the epoch millis until which further attempts are refused
+     */
+    private record Failures(int count, long blockedUntil) {
+    }
+
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> emailBuckets;
+    private final Cache<String, Failures> failures;
+
+    public LoginAttemptThrottle(RateLimitProperties properties) {
+        this.properties = properties;
+        this.emailBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(properties.getIdleEviction())
+                .build();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterWrite(properties.getLoginBackoff().getResetAfter())
+                .build();
+    }
+
+    /**
+     * Admit one attempt for the email, or fail with TooManyRequestsException
+     */
+    public Mono<Void> acquire(String email) {
+        if (!properties.isEnabled() || email == null) {
+            return Mono.empty();
+        }
+
+        return Mono.defer(() -> {
+            String key = normalize(email);
+
+            Failures current = failures.getIfPresent(key);
+            long blockedForMillis = current != null ? current.blockedUntil() - System.currentTimeMillis() : 0;
+            if (blockedForMillis > 0) {
+                return Mono.error(new TooManyRequestsException("Too many failed login attempts, please retry later",
+                        Duration.ofMillis(blockedForMillis)));
+            }
+
+            long waitNanos = emailBuckets.get(key, k -> new TokenBucket(properties.getEmail())).tryConsume();
+            if (waitNanos > 0) {
+                return Mono.error(new TooManyRequestsException("Too many attempts, please retry later",
+                        Duration.ofNanos(waitNanos)));
+            }
+            return Mono.empty();
+        });
+    }
+
+    public void recordFailure(String email) {
+        if (!properties.isEnabled() || email == null) {
+            return;
+        }
+        LoginBackoff backoff = properties.getLoginBackoff();
+        failures.asMap().compute(normalize(email), (key, current) -> {
+            int count = current != null ? current.count() + 1 : 1;
+            long blockedUntil = 0;
+            if (count > backoff.getFreeFailures()) {
+                // Delay doubles with each failure beyond the free ones, capped at maxDelay
+                int exponent = Math.min(count - backoff.getFreeFailures() - 1, 30);
+                long delayMillis = Math.min(backoff.getBaseDelay().toMillis() << exponent, backoff.getMaxDelay().toMillis());
+                blockedUntil = System.currentTimeMillis() + delayMillis;
+                log.warn("Login for {} locked for {} ms after {} failures", key, delayMillis, count);
+            }
+            return new Failures(count, blockedUntil);
+        });
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            failures.invalidate(normalize(email));
+        }
+    }
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.model.UserRole;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership rules evaluated from the already-decoded JWT principal, so no user lookup is needed.
+ * Used from @PreAuthorize as {@code @ownership.isSelfOrAdmin(authentication, #userId)}.
+ */
+@Component("ownership")
+public class OwnershipGuard {
+
+    /**
+     * True when the caller is the given user or an admin
+     */
+    public boolean isSelfOrAdmin(Authentication authentication, Long userId) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return false;
+        }
+        return principal.getRole() == UserRole.ADMIN
+                || (userId != null && userId.equals(principal.getUserId()));
+    }
+
+    /**
+     * User id that order queries must be restricted to, or null when the caller may see every order
+     */
+    public static Long ownerScope(UserPrincipal principal) {
+        return principal.getRole() == UserRole.ADMIN ? null : principal.getUserId();
+    }
+}
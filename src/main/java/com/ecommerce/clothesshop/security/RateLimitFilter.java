@@ -0,0 +1,105 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.config.RateLimitProperties;
+import com.ecommerce.clothesshop.config.RateLimitProperties.BucketLimit;
+import com.ecommerce.clothesshop.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per client IP token buckets for the configured routes (by default the /api/auth endpoints).
+ * Runs ahead of Spring Security so rejected requests cost neither a DB lookup nor BCrypt work.
+ * Buckets are held in a size-bounded cache and evicted when idle, so spraying requests from
+ * many addresses cannot grow memory without limit. Behind a proxy, set
+ * server.forward-headers-strategy so the remote address is the real client.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RateLimitFilter implements WebFilter {
+
+    private record Route(String pattern, PathPattern pathPattern, BucketLimit limit) {
+    }
+
+    private record BucketKey(String route, String clientIp) {
+    }
+
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.routes = properties.getRoutes().entrySet().stream()
+                .map(entry -> new Route(entry.getKey(),
+                        PathPatternParser.defaultInstance.parse(entry.getKey()),
+                        entry.getValue()))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(properties.getIdleEviction())
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = findRoute(request);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        String clientIp = clientIp(request);
+        long waitNanos = buckets.get(new BucketKey(route.pattern(), clientIp), key -> new TokenBucket(route.limit()))
+                .tryConsume();
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        log.warn("Rate limit exceeded for {} on {}", clientIp, route.pattern());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                TooManyRequestsException.retryAfterSeconds(Duration.ofNanos(waitNanos)));
+        return response.setComplete();
+    }
+
+    private Route findRoute(ServerHttpRequest request) {
+        for (Route route : routes) {
+            if (route.pathPattern().matches(request.getPath().pathWithinApplication())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+}
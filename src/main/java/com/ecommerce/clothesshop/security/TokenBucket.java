@@ -0,0 +1,44 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.config.RateLimitProperties.BucketLimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. Tokens are refilled lazily on each attempt, and the
+ * state is swapped with a single compare-and-set, so contended callers retry
+ * instead of blocking.
+ */
+class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(BucketLimit limit) {
+        this.capacity = limit.getCapacity();
+        this.tokensPerNano = (double) limit.getRefillTokens() / limit.getRefillPeriod().toNanos();
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Take one token
+     * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    long tryConsume() {
+        while (true) {
+            long now = System.nanoTime();
+            State current = state.get();
+            double available = Math.min(capacity, current.tokens() + (now - current.refilledAt()) * tokensPerNano);
+            if (available < 1) {
+                return (long) Math.ceil((1 - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - 1, now))) {
+                return 0;
+            }
+        }
+    }
+}
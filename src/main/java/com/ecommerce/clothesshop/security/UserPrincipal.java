@@ -1,13 +1,16 @@
 package com.ecommerce.clothesshop.security;
 
 import com.ecommerce.clothesshop.model.UserRole;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
+/**
+ * Identity decoded from a verified access token
+ */
+@Value
 public class UserPrincipal {
     private Long userId;
     private String email;
     private UserRole role;
+    private String tokenId; // jti of the token this principal was decoded from
+    private String sessionId; // Login session shared by all tokens issued from one login
 }
@@ -0,0 +1,132 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.config.AnalyticsCacheProperties;
+import com.ecommerce.clothesshop.dto.AnalyticsDto.*;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Snapshot cache in front of AnalyticsService.
+ * Each endpoint/period pair is computed at most once at a time: concurrent admins
+ * share the same in-flight computation. Once a snapshot is older than the TTL the
+ * next read still returns it while a refresh runs in the background; snapshots
+ * older than TTL + max-stale are dropped. Order and product writes invalidate the
+ * snapshots they affect so admins see their own changes immediately.
+ * Only known revenue periods are cached, so the number of snapshots is fixed.
+ */
+@Service
+@Slf4j
+public class AnalyticsCacheService {
+
+    enum Snapshot {
+        DASHBOARD, REVENUE, ORDERS, PRODUCTS, CUSTOMERS, PAYMENTS
+    }
+
+    record SnapshotKey(Snapshot snapshot, String period) {
+    }
+
+    private static final Set<String> REVENUE_PERIODS = Set.of("daily", "weekly", "monthly");
+    private static final int MAX_SNAPSHOTS = Snapshot.values().length + REVENUE_PERIODS.size();
+
+    private final AnalyticsService analyticsService;
+    private final AnalyticsCacheProperties properties;
+    private final AsyncLoadingCache<SnapshotKey, Object> snapshots;
+
+    public AnalyticsCacheService(AnalyticsService analyticsService, AnalyticsCacheProperties properties) {
+        this.analyticsService = analyticsService;
+        this.properties = properties;
+        this.snapshots = Caffeine.newBuilder()
+            .maximumSize(MAX_SNAPSHOTS)
+            .refreshAfterWrite(properties.getTtl())
+            .expireAfterWrite(properties.getTtl().plus(properties.getMaxStale()))
+            .buildAsync((key, executor) -> compute(key).cast(Object.class).toFuture());
+    }
+
+    public Mono<DashboardSummary> getDashboardSummary() {
+        return get(new SnapshotKey(Snapshot.DASHBOARD, null));
+    }
+
+    public Mono<RevenueAnalytics> getRevenueAnalytics(String period) {
+        String normalized = period.toLowerCase(Locale.ROOT);
+        if (!REVENUE_PERIODS.contains(normalized)) {
+            // Unknown periods have no data and need no query; not caching them keeps the key space fixed
+            return analyticsService.getRevenueAnalytics(period);
+        }
+        return get(new SnapshotKey(Snapshot.REVENUE, normalized));
+    }
+
+    public Mono<OrderAnalytics> getOrderAnalytics() {
+        return get(new SnapshotKey(Snapshot.ORDERS, null));
+    }
+
+    public Mono<ProductAnalytics> getProductAnalytics() {
+        return get(new SnapshotKey(Snapshot.PRODUCTS, null));
+    }
+
+    public Mono<CustomerAnalytics> getCustomerAnalytics() {
+        return get(new SnapshotKey(Snapshot.CUSTOMERS, null));
+    }
+
+    public Mono<PaymentAnalytics> getPaymentAnalytics() {
+        return get(new SnapshotKey(Snapshot.PAYMENTS, null));
+    }
+
+    /**
+     * A new order changes every snapshot, including units sold and stock
+     */
+    public void onOrderPlaced() {
+        invalidate(EnumSet.allOf(Snapshot.class));
+    }
+
+    /**
+     * Status and payment changes only move orders between status buckets
+     */
+    public void onOrderUpdated() {
+        invalidate(EnumSet.of(Snapshot.DASHBOARD, Snapshot.REVENUE, Snapshot.ORDERS, Snapshot.PAYMENTS));
+    }
+
+    public void onProductsChanged() {
+        invalidate(EnumSet.of(Snapshot.PRODUCTS));
+    }
+
+    /**
+     * Revenue series are read from the rollup, which a rebuild may have corrected
+     */
+    public void onSalesRollupRebuilt() {
+        invalidate(EnumSet.of(Snapshot.REVENUE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> get(SnapshotKey key) {
+        if (!properties.isEnabled()) {
+            return (Mono<T>) compute(key);
+        }
+        // Never cancel the shared future when one caller goes away
+        return Mono.fromFuture(snapshots.get(key), true)
+            .map(value -> (T) value);
+    }
+
+    private Mono<?> compute(SnapshotKey key) {
+        return switch (key.snapshot()) {
+            case DASHBOARD -> analyticsService.getDashboardSummary();
+            case REVENUE -> analyticsService.getRevenueAnalytics(key.period());
+            case ORDERS -> analyticsService.getOrderAnalytics();
+            case PRODUCTS -> analyticsService.getProductAnalytics();
+            case CUSTOMERS -> analyticsService.getCustomerAnalytics();
+            case PAYMENTS -> analyticsService.getPaymentAnalytics();
+        };
+    }
+
+    private void invalidate(Set<Snapshot> affected) {
+        snapshots.asMap().keySet()
+            .removeIf(key -> affected.contains(key.snapshot()));
+        log.debug("Invalidated analytics snapshots: {}", affected);
+    }
+}
@@ -1,17 +1,15 @@
 package com.ecommerce.clothesshop.service;
 
 import com.ecommerce.clothesshop.dto.AnalyticsDto.*;
-import com.ecommerce.clothesshop.model.*;
-import com.ecommerce.clothesshop.repository.*;
+import com.ecommerce.clothesshop.repository.AnalyticsAggregates.*;
+import com.ecommerce.clothesshop.repository.AnalyticsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,167 +18,148 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsService {
-    private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private static final int LOW_STOCK_THRESHOLD = 10;
+    private static final int TOP_SELLING_LIMIT = 10;
+
+    private final AnalyticsRepository analyticsRepository;
 
     // Dashboard Summary
     public Mono<DashboardSummary> getDashboardSummary() {
-        return Mono.zip(
-            getTotalRevenue(),
-            getTotalOrders(),
-            getTotalCustomers(),
-            getTotalProductsSold(),
-            getOrderStatusCounts(),
-            getAverageOrderValue()
-        ).map(tuple -> {
-            BigDecimal revenue = tuple.getT1();
-            Integer orders = tuple.getT2();
-            Integer customers = tuple.getT3();
-            Integer productsSold = tuple.getT4();
-            Map<String, Integer> statusCounts = tuple.getT5();
-            BigDecimal avgOrderValue = tuple.getT6();
-
-            Double conversionRate = customers > 0 ? (orders.doubleValue() / customers) * 100 : 0.0;
-
-            return DashboardSummary.builder()
-                .totalRevenue(revenue)
-                .totalOrders(orders)
-                .totalCustomers(customers)
-                .totalProductsSold(productsSold)
-                .conversionRate(conversionRate)
-                .averageOrderValue(avgOrderValue)
-                .pendingOrders(statusCounts.getOrDefault("PENDING", 0))
-                .completedOrders(statusCounts.getOrDefault("DELIVERED", 0))
-                .build();
-        }).subscribeOn(Schedulers.boundedElastic());
+        return analyticsRepository.findDashboardTotals()
+            .map(totals -> {
+                BigDecimal revenue = totals.getTotalRevenue();
+                int orders = Math.toIntExact(totals.getTotalOrders());
+                int customers = Math.toIntExact(totals.getTotalCustomers());
+
+                Double conversionRate = customers > 0 ? ((double) orders / customers) * 100 : 0.0;
+                BigDecimal avgOrderValue = orders > 0 ?
+                    revenue.divide(BigDecimal.valueOf(orders), 2, java.math.RoundingMode.HALF_UP) :
+                    BigDecimal.ZERO;
+
+                return DashboardSummary.builder()
+                    .totalRevenue(revenue)
+                    .totalOrders(orders)
+                    .totalCustomers(customers)
+                    .totalProductsSold(Math.toIntExact(totals.getTotalProductsSold()))
+                    .conversionRate(conversionRate)
+                    .averageOrderValue(avgOrderValue)
+                    .pendingOrders(Math.toIntExact(totals.getPendingOrders()))
+                    .completedOrders(Math.toIntExact(totals.getDeliveredOrders()))
+                    .build();
+            });
     }
 
     // Revenue Analytics
     public Mono<RevenueAnalytics> getRevenueAnalytics(String period) {
-        return orderRepository.findAll()
-            .collectList()
-            .map(orders -> {
-                List<RevenueData> revenueData = new ArrayList<>();
-
-                if ("daily".equalsIgnoreCase(period)) {
-                    revenueData = getLastNDaysRevenue(orders, 30);
-                } else if ("weekly".equalsIgnoreCase(period)) {
-                    revenueData = getWeeklyRevenue(orders);
-                } else if ("monthly".equalsIgnoreCase(period)) {
-                    revenueData = getMonthlyRevenue(orders);
-                }
+        Mono<List<RevenueData>> revenueDataMono;
+
+        if ("daily".equalsIgnoreCase(period)) {
+            revenueDataMono = getLastNDaysRevenue(30);
+        } else if ("weekly".equalsIgnoreCase(period)) {
+            revenueDataMono = getWeeklyRevenue();
+        } else if ("monthly".equalsIgnoreCase(period)) {
+            revenueDataMono = getMonthlyRevenue();
+        } else {
+            revenueDataMono = Mono.just(new ArrayList<>());
+        }
 
-                BigDecimal totalRevenue = revenueData.stream()
-                    .map(RevenueData::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                BigDecimal growth = calculateRevenuGrowth(revenueData);
-                String trend = growth.compareTo(BigDecimal.ZERO) > 0 ? "UP" :
-                              growth.compareTo(BigDecimal.ZERO) < 0 ? "DOWN" : "STABLE";
-
-                return RevenueAnalytics.builder()
-                    .dailyRevenue(period.equalsIgnoreCase("daily") ? revenueData : null)
-                    .weeklyRevenue(period.equalsIgnoreCase("weekly") ? revenueData : null)
-                    .monthlyRevenue(period.equalsIgnoreCase("monthly") ? revenueData : null)
-                    .totalRevenue(totalRevenue)
-                    .revenueGrowth(growth)
-                    .growthTrend(trend)
-                    .build();
-            })
-            .subscribeOn(Schedulers.boundedElastic());
+        return revenueDataMono.map(revenueData -> {
+            BigDecimal totalRevenue = revenueData.stream()
+                .map(RevenueData::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            BigDecimal growth = calculateRevenuGrowth(revenueData);
+            String trend = growth.compareTo(BigDecimal.ZERO) > 0 ? "UP" :
+                          growth.compareTo(BigDecimal.ZERO) < 0 ? "DOWN" : "STABLE";
+
+            return RevenueAnalytics.builder()
+                .dailyRevenue(period.equalsIgnoreCase("daily") ? revenueData : null)
+                .weeklyRevenue(period.equalsIgnoreCase("weekly") ? revenueData : null)
+                .monthlyRevenue(period.equalsIgnoreCase("monthly") ? revenueData : null)
+                .totalRevenue(totalRevenue)
+                .revenueGrowth(growth)
+                .growthTrend(trend)
+                .build();
+        });
     }
 
     // Order Analytics
     public Mono<OrderAnalytics> getOrderAnalytics() {
-        return orderRepository.findAll()
-            .collectList()
-            .map(orders -> {
-                Map<String, Integer> statusCounts = orders.stream()
-                    .collect(Collectors.groupingBy(
-                        order -> order.getStatus().toString(),
-                        Collectors.summingInt(order -> 1)
-                    ));
+        return Mono.zip(
+            analyticsRepository.countOrdersByStatus().collectList(),
+            analyticsRepository.averageProcessingHours()
+        ).map(tuple -> {
+            List<StatusCount> rows = tuple.getT1();
+            double avgProcessingTime = tuple.getT2();
+
+            Map<String, Integer> statusCounts = rows.stream()
+                .collect(Collectors.toMap(StatusCount::getStatus, row -> Math.toIntExact(row.getCount())));
+            int totalOrders = statusCounts.values().stream().mapToInt(Integer::intValue).sum();
+
+            List<OrderStatusCount> distribution = rows.stream()
+                .map(row -> {
+                    double percentage = (row.getCount().doubleValue() / totalOrders) * 100;
+                    return OrderStatusCount.builder()
+                        .status(row.getStatus())
+                        .count(Math.toIntExact(row.getCount()))
+                        .percentage(percentage)
+                        .build();
+                })
+                .collect(Collectors.toList());
 
-                List<OrderStatusCount> distribution = statusCounts.entrySet().stream()
-                    .map(entry -> {
-                        double percentage = (entry.getValue().doubleValue() / orders.size()) * 100;
-                        return OrderStatusCount.builder()
-                            .status(entry.getKey())
-                            .count(entry.getValue())
-                            .percentage(percentage)
-                            .build();
-                    })
-                    .collect(Collectors.toList());
-
-                double avgProcessingTime = calculateAverageProcessingTime(orders);
-
-                return OrderAnalytics.builder()
-                    .totalOrders(orders.size())
-                    .pendingOrders(statusCounts.getOrDefault("PENDING", 0))
-                    .processingOrders(statusCounts.getOrDefault("PROCESSING", 0))
-                    .confirmedOrders(statusCounts.getOrDefault("CONFIRMED", 0))
-                    .shippedOrders(statusCounts.getOrDefault("SHIPPED", 0))
-                    .deliveredOrders(statusCounts.getOrDefault("DELIVERED", 0))
-                    .cancelledOrders(statusCounts.getOrDefault("CANCELLED", 0))
-                    .averageProcessingTime(avgProcessingTime)
-                    .statusDistribution(distribution)
-                    .build();
-            })
-            .subscribeOn(Schedulers.boundedElastic());
+            return OrderAnalytics.builder()
+                .totalOrders(totalOrders)
+                .pendingOrders(statusCounts.getOrDefault("PENDING", 0))
+                .processingOrders(statusCounts.getOrDefault("PROCESSING", 0))
+                .confirmedOrders(statusCounts.getOrDefault("CONFIRMED", 0))
+                .shippedOrders(statusCounts.getOrDefault("SHIPPED", 0))
+                .deliveredOrders(statusCounts.getOrDefault("DELIVERED", 0))
+                .cancelledOrders(statusCounts.getOrDefault("CANCELLED", 0))
+                .averageProcessingTime(avgProcessingTime)
+                .statusDistribution(distribution)
+                .build();
+        });
     }
 
     // Product Analytics
     public Mono<ProductAnalytics> getProductAnalytics() {
         return Mono.zip(
-            productRepository.findAll().collectList(),
-            orderItemRepository.findAll().collectList()
+            analyticsRepository.findProductTotals(LOW_STOCK_THRESHOLD),
+            analyticsRepository.findTopSellingProducts(TOP_SELLING_LIMIT).collectList(),
+            analyticsRepository.findLowStockProducts(LOW_STOCK_THRESHOLD).collectList()
         ).map(tuple -> {
-            List<Product> products = tuple.getT1();
-            List<OrderItem> orderItems = tuple.getT2();
-
-            int activeProducts = (int) products.stream().filter(Product::getIsActive).count();
-            int lowStockProducts = (int) products.stream()
-                .filter(p -> p.getIsActive() && p.getStockQuantity() < 10).count();
+            ProductTotals totals = tuple.getT1();
 
-            Map<Long, Integer> unitsSoldMap = orderItems.stream()
-                .collect(Collectors.groupingBy(
-                    OrderItem::getProductId,
-                    Collectors.summingInt(OrderItem::getQuantity)
-                ));
-
-            List<ProductPerformance> topSelling = products.stream()
+            List<ProductPerformance> topSelling = tuple.getT2().stream()
                 .map(p -> ProductPerformance.builder()
-                    .productId(p.getId())
-                    .productName(p.getName())
+                    .productId(p.getProductId())
+                    .productName(p.getProductName())
                     .category(p.getCategory())
-                    .unitsSold(unitsSoldMap.getOrDefault(p.getId(), 0))
-                    .revenue(p.getPrice().multiply(BigDecimal.valueOf(
-                        unitsSoldMap.getOrDefault(p.getId(), 0))))
-                    .currentStock(p.getStockQuantity())
-                    .profitMargin(calculateProfitMargin(p))
+                    .unitsSold(Math.toIntExact(p.getUnitsSold()))
+                    .revenue(p.getPrice().multiply(BigDecimal.valueOf(p.getUnitsSold())))
+                    .currentStock(p.getCurrentStock())
+                    .profitMargin(calculateProfitMargin(p.getPrice()))
                     .rating(0.0)
                     .build())
-                .sorted(Comparator.comparing((ProductPerformance pp) -> pp.getUnitsSold()).reversed())
-                .limit(10)
                 .collect(Collectors.toList());
 
-            List<ProductPerformance> lowStockWarnings = products.stream()
-                .filter(p -> p.getStockQuantity() < 10)
+            List<ProductPerformance> lowStockWarnings = tuple.getT3().stream()
                 .map(p -> ProductPerformance.builder()
-                    .productId(p.getId())
-                    .productName(p.getName())
+                    .productId(p.getProductId())
+                    .productName(p.getProductName())
                     .category(p.getCategory())
-                    .currentStock(p.getStockQuantity())
+                    .currentStock(p.getCurrentStock())
                     .build())
                 .collect(Collectors.toList());
 
+            int totalProducts = Math.toIntExact(totals.getTotalProducts());
+            int activeProducts = Math.toIntExact(totals.getActiveProducts());
+
             return ProductAnalytics.builder()
-                .totalProducts(products.size())
+                .totalProducts(totalProducts)
                 .activeProducts(activeProducts)
-                .inactiveProducts(products.size() - activeProducts)
-                .lowStockProducts(lowStockProducts)
+                .inactiveProducts(totalProducts - activeProducts)
+                .lowStockProducts(Math.toIntExact(totals.getLowStockActiveProducts()))
                 .topSellingProducts(topSelling)
                 .topRevenueProducts(topSelling.stream()
                     .sorted(Comparator.comparing(ProductPerformance::getRevenue).reversed())
@@ -188,104 +167,74 @@ public class AnalyticsService {
                     .collect(Collectors.toList()))
                 .lowStockWarnings(lowStockWarnings)
                 .build();
-        })
-        .subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     // Customer Analytics
     public Mono<CustomerAnalytics> getCustomerAnalytics() {
-        return Mono.zip(
-            userRepository.findAll().collectList(),
-            orderRepository.findAll().collectList()
-        ).map(tuple -> {
-            List<User> users = tuple.getT1();
-            List<Order> orders = tuple.getT2();
-
-            LocalDate monthAgo = LocalDate.now().minusMonths(1);
-            int newCustomers = (int) orders.stream()
-                .filter(o -> o.getCreatedAt().toLocalDate().isAfter(monthAgo))
-                .map(Order::getUserId)
-                .distinct()
-                .count();
-
-            Map<Long, Integer> customerOrderCounts = orders.stream()
-                .collect(Collectors.groupingBy(
-                    Order::getUserId,
-                    Collectors.summingInt(o -> 1)
-                ));
-
-            int returningCustomers = (int) customerOrderCounts.values().stream()
-                .filter(count -> count > 1)
-                .count();
-
-            double retentionRate = users.size() > 0 ?
-                ((double) returningCustomers / users.size()) * 100 : 0.0;
-
-            BigDecimal totalSpent = orders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal avgLifetimeValue = users.size() > 0 ?
-                totalSpent.divide(BigDecimal.valueOf(users.size()), 2, java.math.RoundingMode.HALF_UP) :
-                BigDecimal.ZERO;
-
-            return CustomerAnalytics.builder()
-                .totalCustomers(users.size())
-                .activeCustomers(customerOrderCounts.size())
-                .newCustomersThisMonth(newCustomers)
-                .returningCustomers(returningCustomers)
-                .customerRetentionRate(retentionRate)
-                .averageCustomerLifetimeValue(avgLifetimeValue.doubleValue())
-                .build();
-        })
-        .subscribeOn(Schedulers.boundedElastic());
+        LocalDate monthAgo = LocalDate.now().minusMonths(1);
+
+        return analyticsRepository.findCustomerTotals(monthAgo)
+            .map(totals -> {
+                int users = Math.toIntExact(totals.getTotalCustomers());
+                int returningCustomers = Math.toIntExact(totals.getReturningCustomers());
+
+                double retentionRate = users > 0 ?
+                    ((double) returningCustomers / users) * 100 : 0.0;
+
+                BigDecimal avgLifetimeValue = users > 0 ?
+                    totals.getTotalSpent().divide(BigDecimal.valueOf(users), 2, java.math.RoundingMode.HALF_UP) :
+                    BigDecimal.ZERO;
+
+                return CustomerAnalytics.builder()
+                    .totalCustomers(users)
+                    .activeCustomers(Math.toIntExact(totals.getActiveCustomers()))
+                    .newCustomersThisMonth(Math.toIntExact(totals.getNewCustomers()))
+                    .returningCustomers(returningCustomers)
+                    .customerRetentionRate(retentionRate)
+                    .averageCustomerLifetimeValue(avgLifetimeValue.doubleValue())
+                    .build();
+            });
     }
 
     // Payment Analytics
     public Mono<PaymentAnalytics> getPaymentAnalytics() {
-        return orderRepository.findAll()
+        return analyticsRepository.findPaymentBreakdown()
             .collectList()
-            .map(orders -> {
-                Map<String, Integer> paymentStatusCounts = orders.stream()
-                    .collect(Collectors.groupingBy(
-                        order -> order.getPaymentStatus().toString(),
-                        Collectors.summingInt(order -> 1)
-                    ));
-
-                Map<String, Integer> methodCounts = orders.stream()
-                    .collect(Collectors.groupingBy(
-                        order -> order.getPaymentMethod(),
-                        Collectors.summingInt(order -> 1)
-                    ));
-
-                BigDecimal totalPaymentValue = orders.stream()
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .map(rows -> {
+                Map<String, Integer> paymentStatusCounts = new HashMap<>();
+                Map<String, Integer> methodCounts = new TreeMap<>();
+                Map<String, BigDecimal> methodTotals = new HashMap<>();
+                int totalPayments = 0;
+                BigDecimal totalPaymentValue = BigDecimal.ZERO;
+
+                for (PaymentBreakdown row : rows) {
+                    int count = Math.toIntExact(row.getCount());
+                    paymentStatusCounts.merge(row.getPaymentStatus(), count, Integer::sum);
+                    methodCounts.merge(row.getPaymentMethod(), count, Integer::sum);
+                    methodTotals.merge(row.getPaymentMethod(), row.getTotalAmount(), BigDecimal::add);
+                    totalPayments += count;
+                    totalPaymentValue = totalPaymentValue.add(row.getTotalAmount());
+                }
 
+                int orderCount = totalPayments;
                 int successful = paymentStatusCounts.getOrDefault("COMPLETED", 0);
-                double successRate = orders.size() > 0 ?
-                    ((double) successful / orders.size()) * 100 : 0.0;
+                double successRate = orderCount > 0 ?
+                    ((double) successful / orderCount) * 100 : 0.0;
 
                 Map<String, PaymentMethodStats> methodStats = methodCounts.entrySet().stream()
                     .collect(Collectors.toMap(
                         Map.Entry::getKey,
-                        entry -> {
-                            BigDecimal methodTotal = orders.stream()
-                                .filter(o -> o.getPaymentMethod().equals(entry.getKey()))
-                                .map(Order::getTotalAmount)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                            return PaymentMethodStats.builder()
-                                .count(entry.getValue())
-                                .totalAmount(methodTotal)
-                                .percentage((entry.getValue().doubleValue() / orders.size()) * 100)
-                                .successRate(successRate)
-                                .build();
-                        }
+                        entry -> PaymentMethodStats.builder()
+                            .count(entry.getValue())
+                            .totalAmount(methodTotals.get(entry.getKey()))
+                            .percentage((entry.getValue().doubleValue() / orderCount) * 100)
+                            .successRate(successRate)
+                            .build()
                     ));
 
                 return PaymentAnalytics.builder()
-                    .totalPayments(orders.size())
+                    .totalPayments(orderCount)
                     .successfulPayments(successful)
                     .failedPayments(paymentStatusCounts.getOrDefault("FAILED", 0))
                     .pendingPayments(paymentStatusCounts.getOrDefault("PENDING", 0))
@@ -293,72 +242,29 @@ public class AnalyticsService {
                     .successRate(successRate)
                     .paymentMethods(methodStats)
                     .build();
-            })
-            .subscribeOn(Schedulers.boundedElastic());
+            });
     }
 
     // Helper methods
-    private Mono<BigDecimal> getTotalRevenue() {
-        return orderRepository.findAll()
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private Mono<Integer> getTotalOrders() {
-        return orderRepository.findAll()
-            .count()
-            .map(Math::toIntExact);
-    }
-
-    private Mono<Integer> getTotalCustomers() {
-        return userRepository.findAll()
-            .count()
-            .map(Math::toIntExact);
-    }
-
-    private Mono<Integer> getTotalProductsSold() {
-        return orderItemRepository.findAll()
-            .map(OrderItem::getQuantity)
-            .reduce(0, Integer::sum)
-            .map(total -> total);
-    }
+    private Mono<List<RevenueData>> getLastNDaysRevenue(int days) {
+        LocalDate startDate = LocalDate.now().minusDays(days);
 
-    private Mono<Map<String, Integer>> getOrderStatusCounts() {
-        return orderRepository.findAll()
+        return analyticsRepository.findRevenueByPeriod("day", startDate)
             .collectList()
-            .map(orders -> orders.stream()
-                .collect(Collectors.groupingBy(
-                    order -> order.getStatus().toString(),
-                    Collectors.summingInt(order -> 1)
-                ))
-            );
-    }
-
-    private Mono<BigDecimal> getAverageOrderValue() {
-        return Mono.zip(
-            getTotalRevenue(),
-            getTotalOrders()
-        ).map(tuple -> {
-            BigDecimal revenue = tuple.getT1();
-            Integer orders = tuple.getT2();
-            return orders > 0 ? revenue.divide(BigDecimal.valueOf(orders), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
-        });
+            .map(rows -> fillDailyRevenue(rows, startDate, days));
     }
 
-    private List<RevenueData> getLastNDaysRevenue(List<Order> orders, int days) {
+    /**
+     * Zero-fill the daily series so days without orders still appear in charts
+     */
+    static List<RevenueData> fillDailyRevenue(List<PeriodRevenue> rows, LocalDate startDate, int days) {
         Map<LocalDate, BigDecimal> revenueMap = new LinkedHashMap<>();
-        LocalDate startDate = LocalDate.now().minusDays(days);
 
         for (int i = 0; i < days; i++) {
             revenueMap.put(startDate.plusDays(i), BigDecimal.ZERO);
         }
 
-        orders.forEach(order -> {
-            LocalDate date = order.getCreatedAt().toLocalDate();
-            if (!date.isBefore(startDate)) {
-                revenueMap.put(date, revenueMap.getOrDefault(date, BigDecimal.ZERO).add(order.getTotalAmount()));
-            }
-        });
+        rows.forEach(row -> revenueMap.merge(row.getPeriodStart(), row.getRevenue(), BigDecimal::add));
 
         return revenueMap.entrySet().stream()
             .map(entry -> RevenueData.builder()
@@ -369,40 +275,22 @@ public class AnalyticsService {
             .collect(Collectors.toList());
     }
 
-    private List<RevenueData> getWeeklyRevenue(List<Order> orders) {
-        // Implementation for weekly revenue
-        Map<Integer, BigDecimal> weekRevenueMap = new TreeMap<>();
-
-        orders.forEach(order -> {
-            int weekOfYear = order.getCreatedAt().getYear() * 100 +
-                            order.getCreatedAt().toLocalDate().getDayOfWeek().getValue();
-            weekRevenueMap.put(weekOfYear,
-                weekRevenueMap.getOrDefault(weekOfYear, BigDecimal.ZERO).add(order.getTotalAmount()));
-        });
-
-        return weekRevenueMap.entrySet().stream()
-            .map(entry -> RevenueData.builder()
-                .label("Week " + entry.getKey())
-                .amount(entry.getValue())
+    private Mono<List<RevenueData>> getWeeklyRevenue() {
+        return analyticsRepository.findRevenueByPeriod("week", null)
+            .map(row -> RevenueData.builder()
+                .label(row.getLabel())
+                .amount(row.getRevenue())
                 .build())
-            .collect(Collectors.toList());
+            .collectList();
     }
 
-    private List<RevenueData> getMonthlyRevenue(List<Order> orders) {
-        Map<YearMonth, BigDecimal> monthRevenueMap = new TreeMap<>();
-
-        orders.forEach(order -> {
-            YearMonth yearMonth = YearMonth.from(order.getCreatedAt());
-            monthRevenueMap.put(yearMonth,
-                monthRevenueMap.getOrDefault(yearMonth, BigDecimal.ZERO).add(order.getTotalAmount()));
-        });
-
-        return monthRevenueMap.entrySet().stream()
-            .map(entry -> RevenueData.builder()
-                .label(entry.getKey().toString())
-                .amount(entry.getValue())
+    private Mono<List<RevenueData>> getMonthlyRevenue() {
+        return analyticsRepository.findRevenueByPeriod("month", null)
+            .map(row -> RevenueData.builder()
+                .label(YearMonth.from(row.getPeriodStart()).toString())
+                .amount(row.getRevenue())
                 .build())
-            .collect(Collectors.toList());
+            .collectList();
     }
 
     private BigDecimal calculateRevenuGrowth(List<RevenueData> revenueData) {
@@ -424,23 +312,11 @@ public class AnalyticsService {
             .multiply(BigDecimal.valueOf(100));
     }
 
-    private double calculateAverageProcessingTime(List<Order> orders) {
-        return orders.stream()
-            .filter(o -> o.getUpdatedAt() != null)
-            .mapToLong(o -> {
-                long hours = java.time.temporal.ChronoUnit.HOURS.between(
-                    o.getCreatedAt(), o.getUpdatedAt());
-                return hours;
-            })
-            .average()
-            .orElse(0.0);
-    }
-
-    private double calculateProfitMargin(Product product) {
+    private double calculateProfitMargin(BigDecimal price) {
         // Assuming cost is 40% of selling price (adjust based on business logic)
-        if (product.getPrice().compareTo(BigDecimal.ZERO) == 0) return 0.0;
-        BigDecimal cost = product.getPrice().multiply(BigDecimal.valueOf(0.4));
-        return cost.divide(product.getPrice(), 4, java.math.RoundingMode.HALF_UP)
+        if (price.compareTo(BigDecimal.ZERO) == 0) return 0.0;
+        BigDecimal cost = price.multiply(BigDecimal.valueOf(0.4));
+        return cost.divide(price, 4, java.math.RoundingMode.HALF_UP)
             .multiply(BigDecimal.valueOf(100))
             .doubleValue();
     }
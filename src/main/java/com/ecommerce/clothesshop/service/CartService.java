@@ -107,31 +107,25 @@ public class CartService {
             .flatMap(cart -> cartItemRepository.deleteByCartId(cart.getId()));
     }
     
+    /**
+     * Load the cart lines joined with their products in a single query
+     */
     private Mono<CartResponse> buildCartResponse(ShoppingCart cart) {
-        return cartItemRepository.findByCartId(cart.getId())
-            .flatMap(item -> productRepository.findById(item.getProductId())
-                .map(product -> CartItemResponse.builder()
-                    .id(item.getId())
-                    .productId(product.getId())
-                    .productName(product.getName())
-                    .quantity(item.getQuantity())
-                    .price(item.getPrice())
-                    .subtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                    .build()
-                )
-            )
+        return cartItemRepository.findCartItemResponses(cart.getId())
             .collectList()
-            .map(items -> {
-                BigDecimal total = items.stream()
-                    .map(CartItemResponse::getSubtotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                return CartResponse.builder()
-                    .id(cart.getId())
-                    .userId(cart.getUserId())
-                    .items(items)
-                    .totalAmount(total)
-                    .build();
-            });
+            .map(items -> CartResponse.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .items(items)
+                .totalAmount(calculateTotal(items))
+                .build());
+    }
+    
+    static BigDecimal calculateTotal(List<CartItemResponse> items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItemResponse item : items) {
+            total = total.add(item.getSubtotal());
+        }
+        return total;
     }
-}
\ No newline at end of file
+}
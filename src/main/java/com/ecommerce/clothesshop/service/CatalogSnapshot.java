@@ -0,0 +1,388 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.FacetedProductsResponse;
+import com.ecommerce.clothesshop.dto.PageResponse;
+import com.ecommerce.clothesshop.dto.ProductFilter;
+import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.dto.ProductSort;
+import com.ecommerce.clothesshop.dto.SuggestionResponse;
+import com.ecommerce.clothesshop.model.Product;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable view of the whole product catalog.
+ * Products are held in id order next to their pre-built responses; the secondary
+ * indexes hold positions into those arrays. A snapshot is never modified after it is
+ * built: writers derive a new snapshot and swap it in (see ProductCatalog). The
+ * suggestion tree is carried over between snapshots and only patched for the products
+ * that changed. Changes that leave every indexed field alone, such as a stock update,
+ * share the indexes with the previous snapshot too. The version counts the snapshots whose products differ from their
+ * predecessor's, so it identifies the content served from this snapshot.
+ */
+final class CatalogSnapshot {
+    private static final int[] NONE = new int[0];
+
+    private final Product[] products;
+    private final ProductResponse[] responses;
+    private final Map<Long, Integer> positionById;
+    private final int[] active;
+    private final Map<String, int[]> byCategory;
+    private final FacetIndex activeFacets; // Bit i stands for products[active[i]]
+    private final SearchIndex activeSearch; // Document i is products[active[i]]
+    private final SortIndex activeSorts; // Position i is products[active[i]]
+    private final Map<Long, Long> unitsSold; // Products that never sold are absent
+    private final SuggestIndex suggestions;
+    private final long version;
+    private final Instant lastModified;
+
+    private CatalogSnapshot(Product[] products, Map<Long, Long> unitsSold, SuggestIndex suggestions,
+                            long version, Instant lastModified) {
+        this.products = products;
+        this.unitsSold = unitsSold;
+        this.suggestions = suggestions;
+        this.version = version;
+        this.lastModified = lastModified;
+        this.responses = new ProductResponse[products.length];
+        Map<Long, Integer> positions = new HashMap<>(products.length * 2);
+        for (int i = 0; i < products.length; i++) {
+            responses[i] = ProductService.toProductResponse(products[i]);
+            positions.put(products[i].getId(), i);
+        }
+        this.positionById = Collections.unmodifiableMap(positions);
+        this.active = positions(p -> Boolean.TRUE.equals(p.getIsActive()));
+        // Category listings include inactive products, matching ProductRepository.findByCategory
+        this.byCategory = index(Product::getCategory);
+        List<Product> activeProducts = Arrays.stream(active).mapToObj(i -> products[i]).toList();
+        this.activeFacets = new FacetIndex(activeProducts);
+        this.activeSearch = new SearchIndex(activeProducts);
+        this.activeSorts = new SortIndex(activeProducts, unitsSold);
+    }
+
+    /**
+     * Copy of base with some products replaced, keeping its position-based indexes.
+     * Only valid when every replaced product was already in base at the same position
+     * and none of the fields those indexes read have changed.
+     */
+    private CatalogSnapshot(CatalogSnapshot base, Product[] products, ProductResponse[] responses,
+                            Map<Long, Long> unitsSold, SortIndex activeSorts, SuggestIndex suggestions,
+                            long version, Instant lastModified) {
+        this.products = products;
+        this.responses = responses;
+        this.unitsSold = unitsSold;
+        this.activeSorts = activeSorts;
+        this.suggestions = suggestions;
+        this.version = version;
+        this.lastModified = lastModified;
+        this.positionById = base.positionById;
+        this.active = base.active;
+        this.byCategory = base.byCategory;
+        this.activeFacets = base.activeFacets;
+        this.activeSearch = base.activeSearch;
+    }
+
+    /**
+     * @param unitsSold units sold per product id
+     */
+    static CatalogSnapshot of(Collection<Product> products, Map<Long, Long> unitsSold) {
+        return of(sorted(products), unitsSold, 1, Instant.now());
+    }
+
+    /**
+     * New snapshot from a full reload; the version only moves if the products differ
+     */
+    CatalogSnapshot reloaded(Collection<Product> reloadedProducts, Map<Long, Long> reloadedUnitsSold) {
+        Product[] sorted = sorted(reloadedProducts);
+        return Arrays.equals(sorted, products)
+            ? of(sorted, reloadedUnitsSold, version, lastModified)
+            : of(sorted, reloadedUnitsSold, version + 1, Instant.now());
+    }
+
+    private static CatalogSnapshot of(Product[] sorted, Map<Long, Long> unitsSold, long version, Instant lastModified) {
+        SuggestIndex.Changes changes = new SuggestIndex.Changes();
+        for (Product product : sorted) {
+            changes.add(product, unitsSold.getOrDefault(product.getId(), 0L));
+        }
+        return new CatalogSnapshot(sorted, Map.copyOf(unitsSold), SuggestIndex.EMPTY.apply(changes), version, lastModified);
+    }
+
+    /**
+     * New snapshot with the given products added or replaced
+     */
+    CatalogSnapshot with(Collection<Product> changed) {
+        return with(changed, Map.of());
+    }
+
+    /**
+     * New snapshot with the given products added or replaced and newly sold units counted
+     * @param sold units sold per product id since this snapshot was built
+     */
+    CatalogSnapshot with(Collection<Product> changed, Map<Long, Integer> sold) {
+        Map<Long, Long> units = new HashMap<>(unitsSold);
+        sold.forEach((productId, quantity) -> units.merge(productId, (long) quantity, Long::sum));
+
+        Map<Long, Product> replaced = new HashMap<>(changed.size() * 2);
+        SuggestIndex.Changes changes = new SuggestIndex.Changes();
+        boolean productsChanged = false;
+        boolean indexesChanged = false;
+        for (Product product : changed) {
+            Product before = replaced.containsKey(product.getId()) ? replaced.get(product.getId()) : product(product.getId());
+            replaced.put(product.getId(), product);
+            productsChanged |= !product.equals(before);
+            indexesChanged |= before == null || !sameIndexedFields(before, product);
+            changes.replace(before, unitsSold.getOrDefault(product.getId(), 0L),
+                product, units.getOrDefault(product.getId(), 0L));
+        }
+        if (!productsChanged && sold.isEmpty()) {
+            return this;
+        }
+        long nextVersion = productsChanged ? version + 1 : version;
+        Instant nextLastModified = productsChanged ? Instant.now() : lastModified;
+        if (indexesChanged) {
+            Map<Long, Product> merged = new HashMap<>(products.length * 2);
+            for (Product product : products) {
+                merged.put(product.getId(), product);
+            }
+            merged.putAll(replaced);
+            return new CatalogSnapshot(sorted(merged.values()), Map.copyOf(units), suggestions.apply(changes),
+                nextVersion, nextLastModified);
+        }
+
+        // Stock and other unindexed fields: swap the entries in place and keep the indexes
+        Product[] patched = products.clone();
+        ProductResponse[] patchedResponses = responses.clone();
+        replaced.forEach((productId, product) -> {
+            int position = positionById.get(productId);
+            patched[position] = product;
+            patchedResponses[position] = ProductService.toProductResponse(product);
+        });
+        SortIndex sorts = sold.isEmpty()
+            ? activeSorts
+            : activeSorts.withUnitsSold(Arrays.stream(active).mapToObj(i -> patched[i]).toList(), units);
+        return new CatalogSnapshot(this, patched, patchedResponses, Map.copyOf(units), sorts,
+            suggestions.apply(changes), nextVersion, nextLastModified);
+    }
+
+    private Product product(Long id) {
+        Integer position = positionById.get(id);
+        return position != null ? products[position] : null;
+    }
+
+    /**
+     * Whether two versions of a product agree on every field an index or the active list reads
+     */
+    private static boolean sameIndexedFields(Product before, Product after) {
+        return Objects.equals(before.getName(), after.getName())
+            && Objects.equals(before.getDescription(), after.getDescription())
+            && Objects.equals(before.getPrice(), after.getPrice())
+            && Objects.equals(before.getCategory(), after.getCategory())
+            && Objects.equals(before.getSubCategory(), after.getSubCategory())
+            && Objects.equals(before.getBrand(), after.getBrand())
+            && Objects.equals(before.getSize(), after.getSize())
+            && Objects.equals(before.getColor(), after.getColor())
+            && Objects.equals(before.getGender(), after.getGender())
+            && Objects.equals(before.getIsActive(), after.getIsActive())
+            && Objects.equals(before.getCreatedAt(), after.getCreatedAt());
+    }
+
+    /**
+     * New snapshot without the given product
+     */
+    CatalogSnapshot without(Long productId) {
+        Integer position = positionById.get(productId);
+        if (position == null) {
+            return this;
+        }
+        Map<Long, Long> units = new HashMap<>(unitsSold);
+        Long removedUnits = units.remove(productId);
+        SuggestIndex.Changes changes = new SuggestIndex.Changes()
+            .remove(products[position], removedUnits != null ? removedUnits : 0L);
+        return new CatalogSnapshot(Arrays.stream(products)
+            .filter(product -> !product.getId().equals(productId))
+            .toArray(Product[]::new), Map.copyOf(units), suggestions.apply(changes), version + 1, Instant.now());
+    }
+
+    private static Product[] sorted(Collection<Product> products) {
+        Product[] sorted = products.toArray(new Product[0]);
+        Arrays.sort(sorted, Comparator.comparing(Product::getId));
+        return sorted;
+    }
+
+    int size() {
+        return products.length;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * When the version last moved
+     */
+    Instant lastModified() {
+        return lastModified;
+    }
+
+    List<ProductResponse> activeProducts() {
+        return responses(active);
+    }
+
+    Optional<ProductResponse> findById(Long id) {
+        Integer position = positionById.get(id);
+        return position != null ? Optional.of(responses[position]) : Optional.empty();
+    }
+
+    List<ProductResponse> findByCategory(String category) {
+        return responses(byCategory.getOrDefault(category, NONE));
+    }
+
+    boolean hasCategory(String category) {
+        return byCategory.containsKey(category);
+    }
+
+    /**
+     * Active products matching every selected filter, in id order
+     */
+    List<ProductResponse> filter(ProductFilter filter) {
+        return responses(activeFacets.match(filter));
+    }
+
+    /**
+     * Active products matching the keyword, most relevant first; a blank keyword matches everything
+     */
+    List<ProductResponse> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return activeProducts();
+        }
+        int[] ranked = activeSearch.search(keyword);
+        List<ProductResponse> result = new ArrayList<>(ranked.length);
+        for (int document : ranked) {
+            result.add(responses[active[document]]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Product names, brands and categories starting with the prefix, best sellers first
+     */
+    List<SuggestionResponse> suggest(String prefix, int limit) {
+        return suggestions.suggest(prefix, limit);
+    }
+
+    /**
+     * One page of active products matching the filter and keyword, continuing after the cursor.
+     * Without an explicit sort, keyword searches are ranked by relevance and plain listings
+     * show the newest products first.
+     */
+    PageResponse<ProductResponse> page(ProductFilter filter, String keyword, ProductSort sort, String cursor, int limit) {
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        ProductSort order = sort == null || (sort == ProductSort.RELEVANCE && !hasKeyword)
+            ? (hasKeyword ? ProductSort.RELEVANCE : ProductSort.NEWEST)
+            : sort;
+
+        BitSet matches = activeFacets.match(filter);
+        int[] ranked = hasKeyword ? activeSearch.search(keyword) : null;
+        if (ranked != null) {
+            BitSet found = new BitSet(active.length);
+            for (int document : ranked) {
+                found.set(document);
+            }
+            matches.and(found);
+        }
+
+        // One extra product tells whether another page exists
+        int[] page;
+        String nextCursor = null;
+        if (order == ProductSort.RELEVANCE) {
+            // Ranks have no stable key, so relevance pages continue from a rank offset
+            int rank = cursor != null ? rankOffset(cursor) : 0;
+            int[] found = new int[limit + 1];
+            int count = 0;
+            for (; rank < ranked.length && count <= limit; rank++) {
+                if (matches.get(ranked[rank])) {
+                    found[count++] = ranked[rank];
+                }
+            }
+            page = Arrays.copyOf(found, Math.min(count, limit));
+            if (count > limit) {
+                nextCursor = SortIndex.encodeCursor(order, rank - 1, 0);
+            }
+        } else {
+            int[] found = activeSorts.page(order, matches,
+                cursor != null ? SortIndex.decodeCursor(order, cursor) : null, limit + 1);
+            page = Arrays.copyOf(found, Math.min(found.length, limit));
+            if (found.length > limit) {
+                SortIndex.Key last = activeSorts.key(order, page[page.length - 1]);
+                nextCursor = SortIndex.encodeCursor(order, last.value(), last.id());
+            }
+        }
+
+        List<ProductResponse> items = new ArrayList<>(page.length);
+        for (int position : page) {
+            items.add(responses[active[position]]);
+        }
+        return PageResponse.<ProductResponse>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(nextCursor != null)
+            .size(items.size())
+            .total(matches.cardinality())
+            .build();
+    }
+
+    private static int rankOffset(String cursor) {
+        Object offset = SortIndex.decodeCursor(ProductSort.RELEVANCE, cursor).value();
+        if (!(offset instanceof Long rank) || rank < 0 || rank > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        return rank.intValue();
+    }
+
+    FacetedProductsResponse facetedSearch(ProductFilter filter) {
+        List<ProductResponse> products = filter(filter);
+        return FacetedProductsResponse.builder()
+            .products(products)
+            .total(products.size())
+            .facets(activeFacets.counts(filter))
+            .build();
+    }
+
+    private List<ProductResponse> responses(int[] positions) {
+        List<ProductResponse> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(responses[position]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private List<ProductResponse> responses(BitSet activeBits) {
+        List<ProductResponse> result = new ArrayList<>(activeBits.cardinality());
+        for (int bit = activeBits.nextSetBit(0); bit >= 0; bit = activeBits.nextSetBit(bit + 1)) {
+            result.add(responses[active[bit]]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private int[] positions(Predicate<Product> predicate) {
+        return IntStream.range(0, products.length)
+            .filter(i -> predicate.test(products[i]))
+            .toArray();
+    }
+
+    private Map<String, int[]> index(Function<Product, String> key) {
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        for (int i = 0; i < products.length; i++) {
+            String value = key.apply(products[i]);
+            if (value != null) {
+                grouped.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> index = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((value, positions) -> index.put(value, positions.stream().mapToInt(Integer::intValue).toArray()));
+        return Collections.unmodifiableMap(index);
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductFilter;
+import com.ecommerce.clothesshop.model.Product;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Bitmap facet index over a fixed list of products.
+ * Bit i stands for the i-th product. Every facet value owns a BitSet of the products
+ * carrying it, and prices are kept sorted so a range becomes two binary searches.
+ * A filter is answered by intersecting bitsets; facet counts are the cardinality of
+ * each value's bitset intersected with every other selected filter.
+ */
+final class FacetIndex {
+
+    enum Facet {
+        CATEGORY("category", Product::getCategory, ProductFilter::getCategory),
+        BRAND("brand", Product::getBrand, ProductFilter::getBrand),
+        GENDER("gender", Product::getGender, ProductFilter::getGender),
+        SIZE("size", Product::getSize, ProductFilter::getSize),
+        COLOR("color", Product::getColor, ProductFilter::getColor);
+
+        private final String key;
+        private final Function<Product, String> value;
+        private final Function<ProductFilter, String> selected;
+
+        Facet(String key, Function<Product, String> value, Function<ProductFilter, String> selected) {
+            this.key = key;
+            this.value = value;
+            this.selected = selected;
+        }
+    }
+
+    private static final BitSet NONE = new BitSet();
+
+    private final BitSet all;
+    private final Map<Facet, Map<String, BitSet>> bitsets = new EnumMap<>(Facet.class);
+    private final int[] byPrice; // Product positions in ascending price order
+    private final BigDecimal[] sortedPrices;
+
+    FacetIndex(List<Product> products) {
+        int size = products.size();
+        this.all = new BitSet(size);
+        all.set(0, size);
+
+        for (Facet facet : Facet.values()) {
+            Map<String, BitSet> values = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                String value = facet.value.apply(products.get(i));
+                if (value != null) {
+                    values.computeIfAbsent(value, v -> new BitSet(size)).set(i);
+                }
+            }
+            bitsets.put(facet, values);
+        }
+
+        this.byPrice = IntStream.range(0, size)
+            .boxed()
+            .sorted(Comparator.comparing(i -> products.get(i).getPrice()))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        this.sortedPrices = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            sortedPrices[i] = products.get(byPrice[i]).getPrice();
+        }
+    }
+
+    /**
+     * Positions of the products matching every selected filter
+     */
+    BitSet match(ProductFilter filter) {
+        return match(filter, null);
+    }
+
+    /**
+     * Value counts per facet. Each facet is counted against the other selected filters
+     * but not its own, so the sidebar can show how many products every alternative has.
+     */
+    Map<String, Map<String, Integer>> counts(ProductFilter filter) {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            BitSet base = match(filter, facet);
+            Map<String, Integer> valueCounts = new LinkedHashMap<>();
+            bitsets.get(facet).forEach((value, bits) -> {
+                BitSet both = (BitSet) bits.clone();
+                both.and(base);
+                int count = both.cardinality();
+                if (count > 0) {
+                    valueCounts.put(value, count);
+                }
+            });
+            counts.put(facet.key, valueCounts);
+        }
+        return counts;
+    }
+
+    private BitSet match(ProductFilter filter, Facet skipped) {
+        BitSet result = (BitSet) all.clone();
+        for (Facet facet : Facet.values()) {
+            String selected = facet.selected.apply(filter);
+            if (facet != skipped && selected != null) {
+                result.and(bitsets.get(facet).getOrDefault(selected, NONE));
+            }
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            result.and(priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        return result;
+    }
+
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        int from = min != null ? firstAtLeast(min) : 0;
+        int to = max != null ? firstAbove(max) : sortedPrices.length;
+        BitSet range = new BitSet(sortedPrices.length);
+        for (int i = from; i < to; i++) {
+            range.set(byPrice[i]);
+        }
+        return range;
+    }
+
+    private int firstAtLeast(BigDecimal price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid].compareTo(price) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstAbove(BigDecimal price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid].compareTo(price) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -2,29 +2,46 @@ package com.ecommerce.clothesshop.service;
 
 import com.ecommerce.clothesshop.dto.CheckoutRequest;
 import com.ecommerce.clothesshop.dto.OrderItemResponse;
+import com.ecommerce.clothesshop.dto.OrderFilter;
 import com.ecommerce.clothesshop.dto.OrderResponse;
+import com.ecommerce.clothesshop.dto.PageResponse;
 import com.ecommerce.clothesshop.model.*;
 import com.ecommerce.clothesshop.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
+    private static final int ORDER_ITEM_BATCH_SIZE = 500;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final OrderRepository orderRepository;
+    private final OrderSearchRepository orderSearchRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartItemRepository cartItemRepository;
     private final ShoppingCartRepository cartRepository;
-    private final ProductRepository productRepository;
     private final ProductService productService;
+    private final SalesRollupService salesRollupService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final TransactionalOperator transactionalOperator;
     
     /**
      * Normalize payment method for storage
@@ -44,123 +61,207 @@ public class OrderService {
 
     public Mono<OrderResponse> createOrder(CheckoutRequest request) {
         return cartRepository.findByUserId(request.getUserId())
-            .flatMap(cart -> cartItemRepository.findByCartId(cart.getId())
-                .collectList()
-                .flatMap(cartItems -> {
-                    if (cartItems.isEmpty()) {
-                        return Mono.error(new RuntimeException("Cart is empty"));
-                    }
-                    
-                    // Calculate total
-                    BigDecimal totalAmount = cartItems.stream()
-                        .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                    // Create order
-                    Order order = Order.builder()
-                        .userId(request.getUserId())
-                        .orderNumber(generateOrderNumber())
-                        .totalAmount(totalAmount)
-                        .status(OrderStatus.PENDING)
-                        .paymentMethod(normalizePaymentMethod(request.getPaymentMethod()))
-                        .paymentStatus(PaymentStatus.PENDING)
-                        .shippingAddress(request.getShippingAddress())
-                        .createdAt(LocalDateTime.now())
-                        .updatedAt(LocalDateTime.now())
-                        .build();
-                    
-                    return orderRepository.save(order)
-                        .flatMap(savedOrder -> {
-                            // Create order items and update stock
-                            return Flux.fromIterable(cartItems)
-                                .flatMap(cartItem -> 
-                                    productRepository.findById(cartItem.getProductId())
-                                        .flatMap(product -> {
-                                            OrderItem orderItem = OrderItem.builder()
-                                                .orderId(savedOrder.getId())
-                                                .productId(product.getId())
-                                                .productName(product.getName())
-                                                .quantity(cartItem.getQuantity())
-                                                .price(cartItem.getPrice())
-                                                .createdAt(LocalDateTime.now())
-                                                .build();
-                                            
-                                            return orderItemRepository.save(orderItem)
-                                                .then(productService.updateStock(product.getId(), cartItem.getQuantity()));
-                                        })
-                                )
-                                .then(cartItemRepository.deleteByCartId(cart.getId()))
-                                .then(buildOrderResponse(savedOrder));
-                        });
-                })
-            )
-            .switchIfEmpty(Mono.error(new RuntimeException("Cart not found")));
+            .flatMap(cart -> {
+                Order order = Order.builder()
+                    .userId(request.getUserId())
+                    .orderNumber(generateOrderNumber())
+                    .totalAmount(BigDecimal.ZERO) // Set from the copied lines below
+                    .status(OrderStatus.PENDING)
+                    .paymentMethod(normalizePaymentMethod(request.getPaymentMethod()))
+                    .paymentStatus(PaymentStatus.PENDING)
+                    .shippingAddress(request.getShippingAddress())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+                
+                // Copy the cart lines into order_items with one INSERT ... SELECT, then take the
+                // total and the stock to decrement from the copied rows, so a cart edit committing
+                // meanwhile cannot make them disagree with the order's items
+                return orderRepository.save(order)
+                    .flatMap(savedOrder -> orderItemRepository.insertFromCart(savedOrder.getId(), cart.getId())
+                        .collectList()
+                        .flatMap(orderItems -> {
+                            if (orderItems.isEmpty()) {
+                                return Mono.error(new RuntimeException("Cart is empty"));
+                            }
+                            savedOrder.setTotalAmount(orderItems.stream()
+                                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                                .reduce(BigDecimal.ZERO, BigDecimal::add));
+                            Map<Long, Integer> quantitiesByProduct = orderItems.stream()
+                                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum));
+                            
+                            return orderRepository.save(savedOrder)
+                                .flatMap(pricedOrder -> productService.decrementStock(quantitiesByProduct)
+                                    .then(cartItemRepository.deleteByCartId(cart.getId()))
+                                    .then(salesRollupService.recordOrderCreated(pricedOrder.getId(), pricedOrder.getStatus()))
+                                    .thenReturn(toOrderResponse(pricedOrder, orderItems)));
+                        }));
+            })
+            .switchIfEmpty(Mono.error(new RuntimeException("Cart not found")))
+            // All-or-nothing: a failure at any step rolls back the order, its items and the stock changes
+            .as(transactionalOperator::transactional)
+            .doOnSuccess(order -> analyticsCacheService.onOrderPlaced())
+            // Stock and units sold changed only once the transaction committed
+            .doOnNext(order -> productService.refreshCatalog(order.getItems().stream()
+                .collect(Collectors.toMap(OrderItemResponse::getProductId, OrderItemResponse::getQuantity, Integer::sum))));
     }
     
-    public Mono<OrderResponse> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId)
+    /**
+     * @param ownerId restrict to this user's orders, or null for no restriction
+     */
+    public Mono<OrderResponse> getOrderById(Long orderId, Long ownerId) {
+        return findOrder(orderId, ownerId)
             .flatMap(this::buildOrderResponse)
             .switchIfEmpty(Mono.error(new RuntimeException("Order not found")));
     }
     
-    public Mono<OrderResponse> getOrderByNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
+    /**
+     * @param ownerId restrict to this user's orders, or null for no restriction
+     */
+    public Mono<OrderResponse> getOrderByNumber(String orderNumber, Long ownerId) {
+        Mono<Order> order = ownerId == null
+            ? orderRepository.findByOrderNumber(orderNumber)
+            : orderRepository.findByOrderNumberAndUserId(orderNumber, ownerId);
+        return order
             .flatMap(this::buildOrderResponse)
             .switchIfEmpty(Mono.error(new RuntimeException("Order not found")));
     }
     
     public Flux<OrderResponse> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId)
-            .flatMap(this::buildOrderResponse);
+        return buildOrderResponses(orderRepository.findByUserId(userId));
     }
     
     public Flux<OrderResponse> getAllOrders() {
-        return orderRepository.findAll()
-            .flatMap(this::buildOrderResponse);
+        return buildOrderResponses(orderRepository.findAll());
+    }
+    
+    /**
+     * One page of orders, newest first, continuing after the given cursor
+     */
+    public Mono<PageResponse<OrderResponse>> getOrdersPage(OrderFilter filter, String cursor, Integer size) {
+        int pageSize = Math.min(size != null && size > 0 ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        
+        return Mono.defer(() -> {
+            Order after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+            
+            // Fetch one extra row to learn whether another page exists
+            return orderSearchRepository.findPage(filter,
+                    after != null ? after.getCreatedAt() : null,
+                    after != null ? after.getId() : null,
+                    pageSize + 1)
+                .collectList();
+        }).flatMap(orders -> {
+            boolean hasMore = orders.size() > pageSize;
+            List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+            Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+            
+            return buildOrderResponses(Flux.fromIterable(page))
+                .collectList()
+                .map(items -> PageResponse.<OrderResponse>builder()
+                    .items(items)
+                    .nextCursor(hasMore ? encodeCursor(last) : null)
+                    .hasMore(hasMore)
+                    .size(items.size())
+                    .build());
+        });
+    }
+    
+    /**
+     * Every matching order, newest first, as a demand-driven stream for exports
+     */
+    public Flux<OrderResponse> streamOrders(OrderFilter filter) {
+        return buildOrderResponses(orderSearchRepository.findAll(filter));
     }
     
     public Mono<OrderResponse> updateOrderStatus(Long orderId, OrderStatus status) {
-        return orderRepository.findById(orderId)
-            .flatMap(order -> {
-                order.setStatus(status);
-                order.setUpdatedAt(LocalDateTime.now());
-                return orderRepository.save(order);
-            })
-            .flatMap(this::buildOrderResponse)
-            .switchIfEmpty(Mono.error(new RuntimeException("Order not found")));
+        return changeOrder(orderId, null, order -> order.setStatus(status));
     }
     
-    public Mono<OrderResponse> updatePaymentStatus(Long orderId, PaymentStatus status, String paymentIntentId) {
-        return orderRepository.findById(orderId)
-            .flatMap(order -> {
-                order.setPaymentStatus(status);
-                order.setPaymentIntentId(paymentIntentId);
-                if (status == PaymentStatus.COMPLETED) {
-                    order.setStatus(OrderStatus.CONFIRMED);
-                }
-                order.setUpdatedAt(LocalDateTime.now());
-                return orderRepository.save(order);
-            })
-            .flatMap(this::buildOrderResponse)
-            .switchIfEmpty(Mono.error(new RuntimeException("Order not found")));
+    /**
+     * @param ownerId restrict to this user's orders, or null for no restriction
+     */
+    public Mono<OrderResponse> updatePaymentStatus(Long orderId, Long ownerId, PaymentStatus status, String paymentIntentId) {
+        return changeOrder(orderId, ownerId, order -> {
+            order.setPaymentStatus(status);
+            order.setPaymentIntentId(paymentIntentId);
+            if (status == PaymentStatus.COMPLETED) {
+                order.setStatus(OrderStatus.CONFIRMED);
+            }
+        });
     }
     
     public Mono<OrderResponse> cancelOrder(Long orderId) {
-        return orderRepository.findById(orderId)
+        return changeOrder(orderId, null, order -> {
+            if (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED) {
+                throw new RuntimeException("Cannot cancel shipped or delivered orders");
+            }
+            order.setStatus(OrderStatus.CANCELLED);
+        });
+    }
+    
+    /**
+     * Ownership is part of the fetch query, so checking it costs no extra round-trip and
+     * another user's order is indistinguishable from a missing one
+     */
+    private Mono<Order> findOrder(Long orderId, Long ownerId) {
+        return ownerId == null
+            ? orderRepository.findById(orderId)
+            : orderRepository.findByIdAndUserId(orderId, ownerId);
+    }
+    
+    /**
+     * Lock the order row, apply the change, save the order and move its sales rollup
+     * contribution in one transaction. Concurrent changes to the same order wait for each
+     * other, so the status the rollup moves from is always the one that was stored, and a
+     * failure between the two writes rolls both back.
+     * @param ownerId restrict to this user's orders, or null for no restriction
+     */
+    private Mono<OrderResponse> changeOrder(Long orderId, Long ownerId, Consumer<Order> change) {
+        Mono<Order> locked = ownerId == null
+            ? orderRepository.findByIdForUpdate(orderId)
+            : orderRepository.findByIdAndUserIdForUpdate(orderId, ownerId);
+        return locked
             .flatMap(order -> {
-                if (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED) {
-                    return Mono.error(new RuntimeException("Cannot cancel shipped or delivered orders"));
-                }
-                order.setStatus(OrderStatus.CANCELLED);
+                OrderStatus previousStatus = order.getStatus();
+                change.accept(order);
                 order.setUpdatedAt(LocalDateTime.now());
-                return orderRepository.save(order);
+                return orderRepository.save(order)
+                    .flatMap(saved -> salesRollupService.recordStatusChange(saved.getId(), previousStatus, saved.getStatus())
+                        .thenReturn(saved));
             })
+            .as(transactionalOperator::transactional)
+            .doOnNext(saved -> analyticsCacheService.onOrderUpdated())
             .flatMap(this::buildOrderResponse)
             .switchIfEmpty(Mono.error(new RuntimeException("Order not found")));
     }
     
     private Mono<OrderResponse> buildOrderResponse(Order order) {
         return orderItemRepository.findByOrderId(order.getId())
+            .collectList()
+            .map(items -> toOrderResponse(order, items));
+    }
+    
+    /**
+     * Assemble responses for a stream of orders, loading their items with one
+     * query per chunk instead of one query per order. Only one chunk of orders
+     * and their items is held in memory at a time, and output order is preserved.
+     */
+    private Flux<OrderResponse> buildOrderResponses(Flux<Order> orders) {
+        return orders
+            .buffer(ORDER_ITEM_BATCH_SIZE)
+            .concatMap(chunk -> {
+                Long[] orderIds = chunk.stream().map(Order::getId).toArray(Long[]::new);
+                return orderItemRepository.findByOrderIds(orderIds)
+                    .collectMultimap(OrderItem::getOrderId)
+                    .flatMapIterable(itemsByOrder -> chunk.stream()
+                        .map(order -> toOrderResponse(order,
+                            itemsByOrder.getOrDefault(order.getId(), List.of())))
+                        .toList());
+            });
+    }
+    
+    static OrderResponse toOrderResponse(Order order, Collection<OrderItem> orderItems) {
+        List<OrderItemResponse> items = orderItems.stream()
             .map(item -> OrderItemResponse.builder()
                 .id(item.getId())
                 .productId(item.getProductId())
@@ -170,19 +271,40 @@ public class OrderService {
                 .subtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .build()
             )
-            .collectList()
-            .map(items -> OrderResponse.builder()
-                .id(order.getId())
-                .orderNumber(order.getOrderNumber())
-                .userId(order.getUserId())
-                .totalAmount(order.getTotalAmount())
-                .status(order.getStatus().name())
-                .paymentMethod(order.getPaymentMethod())
-                .paymentStatus(order.getPaymentStatus().name())
-                .shippingAddress(order.getShippingAddress())
-                .items(items)
-                .build()
-            );
+            .toList();
+        
+        return OrderResponse.builder()
+            .id(order.getId())
+            .orderNumber(order.getOrderNumber())
+            .userId(order.getUserId())
+            .totalAmount(order.getTotalAmount())
+            .status(order.getStatus().name())
+            .paymentMethod(order.getPaymentMethod())
+            .paymentStatus(order.getPaymentStatus().name())
+            .shippingAddress(order.getShippingAddress())
+            .items(items)
+            .build();
+    }
+    
+    private String encodeCursor(Order order) {
+        String raw = order.getCreatedAt() + "|" + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor into the (createdAt, id) position it points at
+     */
+    private Order decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return Order.builder()
+                .createdAt(LocalDateTime.parse(raw.substring(0, separator)))
+                .id(Long.parseLong(raw.substring(separator + 1)))
+                .build();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
     }
     
     private String generateOrderNumber() {
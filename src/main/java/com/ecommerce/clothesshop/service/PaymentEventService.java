@@ -0,0 +1,155 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.OrderResponse;
+import com.ecommerce.clothesshop.dto.PaystackWebhookEvent;
+import com.ecommerce.clothesshop.model.PaymentEvent;
+import com.ecommerce.clothesshop.model.PaymentStatus;
+import com.ecommerce.clothesshop.repository.PaymentEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Inbox of Paystack webhook events. An event is stored when it arrives and applied to its
+ * order afterwards, so the webhook answers without waiting on order updates and payment
+ * confirmations are answered from our own tables instead of a call to Paystack.
+ * Events that could not be applied are retried on a schedule. A payment in another
+ * currency or below its order's total is rejected rather than applied.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentEventService {
+    static final String CHARGE_SUCCESS = "charge.success";
+
+    private static final int BATCH_SIZE = 100;
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final OrderService orderService;
+    private final TransactionalOperator transactionalOperator;
+    private final JsonMapper jsonMapper;
+
+    @Value("${paystack.webhook.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${paystack.currency:KES}")
+    private String currency;
+
+    /**
+     * Store a verified webhook body. Completes once the event is durable; applying it to
+     * its order happens in the background. Redeliveries of a stored event are ignored.
+     */
+    public Mono<Void> receive(byte[] payload) {
+        return Mono.fromCallable(() -> jsonMapper.readValue(payload, PaystackWebhookEvent.class))
+            .flatMap(event -> {
+                PaystackWebhookEvent.PaystackWebhookData data = event.getData();
+                if (!CHARGE_SUCCESS.equals(event.getEvent()) || data == null || data.getReference() == null) {
+                    log.debug("Ignoring Paystack event {}", event.getEvent());
+                    return Mono.empty();
+                }
+                return paymentEventRepository.insertIfAbsent(CHARGE_SUCCESS, data.getReference(), orderId(data.getMetadata()),
+                        data.getStatus(), data.getAmount(), data.getCurrency(), new String(payload, StandardCharsets.UTF_8))
+                    .doOnNext(stored -> log.info("Recorded Paystack charge for reference: {}", stored.getReference()))
+                    .filter(stored -> stored.getOrderId() != null)
+                    .doOnNext(stored -> apply(stored.getId())
+                        .subscribe(applied -> { }, e -> { }));
+            })
+            .then();
+    }
+
+    /**
+     * Whether Paystack has told us the payment succeeded, and it was not rejected
+     */
+    public Mono<Boolean> isPaid(String reference) {
+        return paymentEventRepository.existsByEventAndReferenceAndRejectionIsNull(CHARGE_SUCCESS, reference);
+    }
+
+    /**
+     * Apply a received payment to the buyer's order, linking the two if the payment was
+     * initialized without an order id
+     * @param ownerId restrict to this user's orders, or null for no restriction
+     */
+    public Mono<OrderResponse> confirm(Long orderId, Long ownerId, String reference) {
+        return paymentEventRepository.findByEventAndReference(CHARGE_SUCCESS, reference)
+            .switchIfEmpty(Mono.error(new RuntimeException("Payment not confirmed yet")))
+            .flatMap(event -> orderService.getOrderById(orderId, ownerId)
+                .then(paymentEventRepository.linkOrder(event.getId(), orderId))
+                .flatMap(linked -> linked == 0
+                    ? Mono.error(new RuntimeException("Payment belongs to another order"))
+                    : apply(event.getId()).then(paymentEventRepository.findById(event.getId()))))
+            .flatMap(event -> event.getRejection() != null
+                ? Mono.error(new RuntimeException("Payment rejected: " + event.getRejection()))
+                : orderService.getOrderById(orderId, ownerId));
+    }
+
+    /**
+     * Retry events whose order update failed or was interrupted
+     */
+    @Scheduled(fixedDelayString = "${paystack.webhook.retry-ms:60000}")
+    public void applyPending() {
+        paymentEventRepository.findPending(maxAttempts, BATCH_SIZE)
+            .concatMap(event -> apply(event.getId()).onErrorResume(e -> Mono.empty()))
+            .count()
+            .subscribe(applied -> { }, e -> log.error("Applying pending payment events failed", e));
+    }
+
+    /**
+     * Mark the order paid and the event applied in one transaction, or reject the event if
+     * it does not pay for the order. The event row stays locked meanwhile, so the webhook,
+     * the retry job and a buyer's confirmation never apply the same event twice; whoever
+     * comes second finds it closed and does nothing.
+     */
+    private Mono<Void> apply(Long eventId) {
+        return paymentEventRepository.lockUnprocessed(eventId)
+            .flatMap(event -> orderService.getOrderById(event.getOrderId(), null)
+                .flatMap(order -> {
+                    String rejection = rejection(event, order, currency);
+                    if (rejection != null) {
+                        log.warn("Payment {} rejected for order {}: {}", event.getReference(), event.getOrderId(), rejection);
+                        return paymentEventRepository.markRejected(event.getId(), rejection);
+                    }
+                    return orderService.updatePaymentStatus(event.getOrderId(), null, PaymentStatus.COMPLETED, event.getReference())
+                        .then(paymentEventRepository.markProcessed(event.getId()))
+                        .doOnSuccess(rows -> log.info("Payment {} applied to order {}", event.getReference(), event.getOrderId()));
+                }))
+            .as(transactionalOperator::transactional)
+            .onErrorResume(e -> {
+                log.warn("Applying payment event {} failed: {}", eventId, e.getMessage());
+                return paymentEventRepository.recordFailure(eventId, e.getMessage())
+                    .then(Mono.error(e));
+            })
+            .then();
+    }
+
+    /**
+     * Why a payment cannot settle its order, or null if it can. A transaction can be
+     * initialized with any amount outside this service, so the charge is checked against
+     * the order itself.
+     */
+    static String rejection(PaymentEvent event, OrderResponse order, String currency) {
+        if (!currency.equalsIgnoreCase(event.getCurrency())) {
+            return "paid in " + event.getCurrency() + " instead of " + currency;
+        }
+        long due = PaymentService.toMinorUnits(order.getTotalAmount());
+        if (event.getAmount() == null || event.getAmount() < due) {
+            return "paid " + event.getAmount() + " of the " + due + " minor units due";
+        }
+        return null;
+    }
+
+    /**
+     * The order id sent as metadata on initialization, if any
+     */
+    private static Long orderId(JsonNode metadata) {
+        JsonNode orderId = metadata != null ? metadata.get("order_id") : null;
+        return orderId != null && orderId.canConvertToLong() ? orderId.asLong() : null;
+    }
+}
@@ -13,7 +13,17 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import jakarta.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -29,6 +39,9 @@ public class PaymentService {
     @Value("${paystack.callback.url}")
     private String callbackUrl;
 
+    @Value("${paystack.currency:KES}")
+    private String currency; // Order totals are in this currency
+
     private WebClient webClient;
 
     @PostConstruct
@@ -80,6 +93,7 @@ public class PaymentService {
                 .reference(reference)
                 .callbackUrl(effectiveCallbackUrl)
                 .channels(List.of("card", "mobile_money", "ussd", "bank")) // Enable all payment channels including MPESA
+                .metadata(request.getOrderId() != null ? Map.of("order_id", request.getOrderId()) : null)
                 .build();
 
             return paystackRequest;
@@ -111,6 +125,23 @@ public class PaymentService {
         });
     }
     
+    /**
+     * Fill in what the buyer owes for an order, so the client cannot choose the amount or currency
+     */
+    public PaymentIntentRequest forOrder(PaymentIntentRequest request, OrderResponse order) {
+        request.setOrderId(order.getId());
+        request.setAmount(toMinorUnits(order.getTotalAmount()));
+        request.setCurrency(currency);
+        return request;
+    }
+    
+    /**
+     * An order amount in the currency's minor unit (e.g. cents), which Paystack charges in
+     */
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.UP).longValueExact();
+    }
+    
     /**
      * Verify a Paystack transaction
      * Call this after the user completes payment to verify the transaction status
@@ -131,6 +162,25 @@ public class PaymentService {
             .doOnError(e -> log.error("Error verifying payment for reference: {}", reference, e));
     }
     
+    /**
+     * Whether a webhook body was signed by Paystack: the signature header is the hex
+     * HMAC-SHA512 of the raw body, keyed with our secret key
+     */
+    public boolean isValidWebhookSignature(byte[] payload, String signature) {
+        if (signature == null || signature.isEmpty()) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(paystackApiKey.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            byte[] expected = HexFormat.of().formatHex(mac.doFinal(payload)).getBytes(StandardCharsets.US_ASCII);
+            // Constant-time comparison, so response timing reveals nothing about the expected value
+            return MessageDigest.isEqual(expected, signature.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA512 is not available", e);
+        }
+    }
+    
     /**
      * Check if payment was successful
      */
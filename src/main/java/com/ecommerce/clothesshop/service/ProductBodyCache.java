@@ -0,0 +1,154 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.config.CatalogCacheProperties;
+import com.ecommerce.clothesshop.dto.ApiResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Catalog response bodies kept encoded (UTF-8 JSON, or CBOR for clients that ask for it),
+ * so a repeated catalog read is a cache lookup and a write of the same bytes rather
+ * than a fresh serialisation.
+ * Bodies are keyed by catalog version: any product change moves the version, so
+ * stale bodies are never served and are dropped as soon as the new version is seen.
+ * Each read takes one snapshot and hands back its version with the body, so the
+ * validators always describe the bytes that are sent.
+ * Before the first catalog load bodies are encoded per request from the regular
+ * ProductService reads; products or categories that do not exist are encoded from
+ * the snapshot but not kept, so request paths cannot fill the cache with entries
+ * for keys nobody stocks.
+ */
+@Service
+public class ProductBodyCache implements MeterBinder {
+
+    public enum Format {
+        JSON, CBOR
+    }
+
+    private enum Body {
+        ACTIVE_PRODUCTS, PRODUCT, CATEGORY
+    }
+
+    private record Key(long version, Format format, Body body, Object argument) {
+    }
+
+    private final ProductCatalog productCatalog;
+    private final ProductService productService;
+    private final Map<Format, ObjectMapper> mappers;
+    private final Cache<Key, byte[]> bodies;
+    private final AtomicLong cachedVersion = new AtomicLong();
+
+    public ProductBodyCache(ProductCatalog productCatalog, ProductService productService, JsonMapper jsonMapper,
+                            CBORMapper cborMapper, CatalogCacheProperties properties) {
+        this.productCatalog = productCatalog;
+        this.productService = productService;
+        this.mappers = new EnumMap<>(Map.of(Format.JSON, jsonMapper, Format.CBOR, cborMapper));
+        this.bodies = properties.getEncodedBodies().isEnabled()
+            ? Caffeine.newBuilder()
+                .maximumWeight(properties.getEncodedBodies().getMaximumBytes())
+                .weigher((Key key, byte[] body) -> body.length)
+                .recordStats()
+                .build()
+            : null;
+    }
+
+    /**
+     * Publish hit, miss and eviction counts as cache.* meters with cache=catalog.encoded-bodies
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (bodies != null) {
+            CaffeineCacheMetrics.monitor(registry, bodies, "catalog.encoded-bodies");
+        }
+    }
+
+    /**
+     * An encoded body and the version of the catalog it is read from, so validators sent
+     * with the body always describe it. The body is encoded on subscription, and not at all
+     * for a request answered 304.
+     * @param version empty before the first catalog load, when the body comes from the database
+     */
+    public record Encoded(Optional<ProductCatalog.Version> version, Mono<byte[]> body) {
+    }
+
+    /**
+     * Body of GET /api/products
+     */
+    public Encoded activeProducts(Format format) {
+        return cached(format, Body.ACTIVE_PRODUCTS, null,
+            CatalogSnapshot::activeProducts,
+            catalog -> true,
+            () -> productService.getAllActiveProducts().collectList());
+    }
+
+    /**
+     * Body of GET /api/products/{id}, wrapped in an ApiResponse
+     */
+    public Encoded product(Long id, Format format) {
+        return cached(format, Body.PRODUCT, id,
+            catalog -> catalog.findById(id)
+                .map(ApiResponse::success)
+                .orElseGet(() -> ApiResponse.error("Product not found with id: " + id)),
+            catalog -> catalog.findById(id).isPresent(),
+            () -> productService.getProductById(id)
+                .map(ApiResponse::success)
+                .onErrorResume(e -> Mono.just(ApiResponse.error(e.getMessage()))));
+    }
+
+    /**
+     * Body of GET /api/products/category/{category}
+     */
+    public Encoded category(String category, Format format) {
+        return cached(format, Body.CATEGORY, category,
+            catalog -> catalog.findByCategory(category),
+            catalog -> catalog.hasCategory(category),
+            () -> productService.getProductsByCategory(category).collectList());
+    }
+
+    /**
+     * Reads the current snapshot once; the body and its version both come from it
+     * @param fromCatalog the value to encode
+     * @param cacheable whether to keep the encoded value; false for keys the catalog does not have
+     * @param uncached the value to encode when there is no catalog yet
+     */
+    private Encoded cached(Format format, Body body, Object argument, Function<CatalogSnapshot, ?> fromCatalog,
+                           Predicate<CatalogSnapshot> cacheable, Supplier<Mono<?>> uncached) {
+        ObjectMapper mapper = mappers.get(format);
+        Optional<CatalogSnapshot> current = productCatalog.current();
+        if (current.isEmpty()) {
+            return new Encoded(Optional.empty(), Mono.defer(() -> uncached.get().map(mapper::writeValueAsBytes)));
+        }
+        CatalogSnapshot catalog = current.get();
+        return new Encoded(Optional.of(productCatalog.version(catalog)), Mono.fromSupplier(() -> {
+            if (bodies == null || !cacheable.test(catalog)) {
+                return mapper.writeValueAsBytes(fromCatalog.apply(catalog));
+            }
+            evictOlderThan(catalog.version());
+            return bodies.get(new Key(catalog.version(), format, body, argument),
+                key -> mapper.writeValueAsBytes(fromCatalog.apply(catalog)));
+        }));
+    }
+
+    private void evictOlderThan(long version) {
+        long previous = cachedVersion.getAndAccumulate(version, Math::max);
+        if (previous < version) {
+            bodies.asMap().keySet().removeIf(key -> key.version() < version);
+        }
+    }
+}
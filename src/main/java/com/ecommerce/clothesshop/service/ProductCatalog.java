@@ -0,0 +1,157 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.model.Product;
+import com.ecommerce.clothesshop.repository.AnalyticsAggregates.ProductSales;
+import com.ecommerce.clothesshop.repository.AnalyticsRepository;
+import com.ecommerce.clothesshop.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current CatalogSnapshot so storefront reads never touch the database.
+ * Product writes swap in a new snapshot copy-on-write; a periodic full reload
+ * corrects anything changed outside ProductService. Products written while a reload
+ * reads are re-read once it has swapped in, so the reload cannot undo them. Until the first load completes
+ * there is no snapshot and callers fall back to the repository.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalog {
+    private final ProductRepository productRepository;
+    private final AnalyticsRepository analyticsRepository;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final Set<RunningReload> runningReloads = ConcurrentHashMap.newKeySet();
+    // Versions restart with the process, so entity tags carry the start time to stay unique
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    /**
+     * Validators for responses served from one catalog version
+     * @param etag strong entity tag, quoted
+     */
+    public record Version(String etag, Instant lastModified) {
+    }
+
+    /**
+     * Ids of the products written since a reload started reading
+     */
+    private static final class RunningReload {
+        private final Set<Long> written = ConcurrentHashMap.newKeySet();
+    }
+
+    Optional<CatalogSnapshot> current() {
+        return Optional.ofNullable(snapshot.get());
+    }
+
+    /**
+     * Validators for responses built from the given snapshot
+     */
+    Version version(CatalogSnapshot catalog) {
+        return new Version("\"" + instanceTag + "-" + catalog.version() + "\"", catalog.lastModified());
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.reload-ms:300000}")
+    public void scheduledReload() {
+        reload().subscribe(loaded -> { }, e -> log.error("Product catalog reload failed", e));
+    }
+
+    /**
+     * Load the whole catalog and swap it in. Products written while loading may have
+     * been read before the write, so they are read again afterwards and patched in.
+     */
+    public Mono<CatalogSnapshot> reload() {
+        return Mono.defer(() -> {
+            RunningReload running = new RunningReload();
+            runningReloads.add(running);
+            return Mono.zip(productRepository.findAll().collectList(),
+                    analyticsRepository.findUnitsSoldByProduct().collectMap(ProductSales::getProductId, ProductSales::getUnitsSold))
+                .map(loaded -> snapshot.updateAndGet(current -> current != null
+                    ? current.reloaded(loaded.getT1(), loaded.getT2())
+                    : CatalogSnapshot.of(loaded.getT1(), loaded.getT2())))
+                .doOnNext(loaded -> log.debug("Product catalog loaded with {} products", loaded.size()))
+                .flatMap(loaded -> {
+                    // Writes from here on land in the new snapshot, so only earlier ones need replaying
+                    runningReloads.remove(running);
+                    return running.written.isEmpty() ? Mono.just(loaded) : replay(running.written);
+                })
+                .doFinally(signal -> runningReloads.remove(running));
+        });
+    }
+
+    /**
+     * Re-read products written during a reload. Their units sold are left as loaded:
+     * a sale may or may not have been counted by the reload, and the next one settles it.
+     */
+    private Mono<CatalogSnapshot> replay(Set<Long> productIds) {
+        return productRepository.findAllById(productIds)
+            .collectList()
+            .map(products -> snapshot.updateAndGet(current -> {
+                Set<Long> deleted = new HashSet<>(productIds);
+                products.forEach(product -> deleted.remove(product.getId()));
+                CatalogSnapshot replayed = current.with(products);
+                for (Long productId : deleted) {
+                    replayed = replayed.without(productId);
+                }
+                return replayed;
+            }));
+    }
+
+    /**
+     * The current snapshot, loading it first if the initial load has not completed yet
+     */
+    Mono<CatalogSnapshot> reloadIfEmpty() {
+        return Mono.defer(() -> {
+            CatalogSnapshot current = snapshot.get();
+            return current != null ? Mono.just(current) : reload();
+        });
+    }
+
+    /**
+     * Add or replace products in the snapshot
+     */
+    public void put(Collection<Product> products) {
+        written(products.stream().map(Product::getId).toList());
+        snapshot.updateAndGet(current -> current != null ? current.with(products) : null);
+    }
+
+    public void put(Product product) {
+        put(List.of(product));
+    }
+
+    public void remove(Long productId) {
+        written(List.of(productId));
+        snapshot.updateAndGet(current -> current != null ? current.without(productId) : null);
+    }
+
+    /**
+     * Re-read the products of a committed order and count the units it sold
+     * @param sold units sold per product id
+     */
+    public Mono<Void> refresh(Map<Long, Integer> sold) {
+        return productRepository.findAllById(sold.keySet())
+            .collectList()
+            .doOnNext(products -> {
+                written(sold.keySet());
+                snapshot.updateAndGet(current -> current != null ? current.with(products, sold) : null);
+            })
+            .then();
+    }
+
+    private void written(Collection<Long> productIds) {
+        runningReloads.forEach(running -> running.written.addAll(productIds));
+    }
+}
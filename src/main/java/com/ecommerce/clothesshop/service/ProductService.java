@@ -1,9 +1,15 @@
 package com.ecommerce.clothesshop.service;
 
+import com.ecommerce.clothesshop.dto.FacetedProductsResponse;
+import com.ecommerce.clothesshop.dto.PageResponse;
+import com.ecommerce.clothesshop.dto.ProductFilter;
 import com.ecommerce.clothesshop.dto.ProductRequest;
 import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.dto.ProductSort;
+import com.ecommerce.clothesshop.dto.SuggestionResponse;
 import com.ecommerce.clothesshop.model.Product;
 import com.ecommerce.clothesshop.repository.ProductRepository;
+import com.ecommerce.clothesshop.repository.ProductSearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,39 +17,97 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final ProductRepository productRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final ProductCatalog productCatalog;
     
     public Flux<ProductResponse> getAllActiveProducts() {
-        return productRepository.findByIsActiveTrue()
-            .map(this::mapToResponse)
+        return Flux.defer(() -> productCatalog.current()
+                .map(catalog -> Flux.fromIterable(catalog.activeProducts()))
+                .orElseGet(() -> productRepository.findByIsActiveTrue().map(ProductService::toProductResponse)))
             .doOnError(e -> log.error("Error fetching products", e));
     }
     
     public Mono<ProductResponse> getProductById(Long id) {
-        return productRepository.findById(id)
-            .map(this::mapToResponse)
+        return Mono.defer(() -> productCatalog.current()
+                .map(catalog -> Mono.justOrEmpty(catalog.findById(id)))
+                .orElseGet(() -> productRepository.findById(id).map(ProductService::toProductResponse)))
             .switchIfEmpty(Mono.error(new RuntimeException("Product not found with id: " + id)));
     }
     
-    public Flux<ProductResponse> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword)
-            .map(this::mapToResponse);
+    /**
+     * Relevance-ranked search with typo-tolerant prefix matching.
+     * Pages are zero-based; without a page size every match is returned.
+     */
+    public Flux<ProductResponse> searchProducts(String keyword, Integer page, Integer size) {
+        Flux<ProductResponse> results = Flux.defer(() -> productCatalog.current()
+            .map(catalog -> Flux.fromIterable(catalog.search(keyword)))
+            .orElseGet(() -> productRepository.searchProducts(keyword).map(ProductService::toProductResponse)));
+        
+        if (size == null || size <= 0) {
+            return results;
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        return results
+            .skip((long) Math.max(page != null ? page : 0, 0) * pageSize)
+            .take(pageSize);
     }
     
-    public Flux<ProductResponse> filterProducts(String category, String brand, 
-                                                Double minPrice, Double maxPrice, String gender) {
-        return productRepository.findByFilters(category, brand, minPrice, maxPrice, gender)
-            .map(this::mapToResponse);
+    /**
+     * One page of active products, keyset-paginated in the requested order
+     * @param keyword optional search terms, applied on top of the filter
+     * @param sort e.g. "price_asc", "newest" or "best_selling"; defaults to relevance for keyword searches, otherwise newest
+     * @param cursor nextCursor from the previous page, omitted for the first page
+     */
+    public Mono<PageResponse<ProductResponse>> getProductsPage(ProductFilter filter, String keyword, String sort,
+                                                               String cursor, Integer size) {
+        int pageSize = Math.min(size != null && size > 0 ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        return productCatalog.reloadIfEmpty()
+            .map(catalog -> catalog.page(filter, keyword,
+                sort != null && !sort.isBlank() ? ProductSort.fromParam(sort) : null,
+                cursor != null && !cursor.isBlank() ? cursor : null,
+                pageSize));
+    }
+    
+    public Flux<ProductResponse> filterProducts(ProductFilter filter) {
+        return Flux.defer(() -> productCatalog.current()
+            .map(catalog -> Flux.fromIterable(catalog.filter(filter)))
+            .orElseGet(() -> productSearchRepository.findActive(filter).map(ProductService::toProductResponse)));
+    }
+    
+    /**
+     * Filtered products together with per-facet value counts for the storefront sidebar
+     */
+    public Mono<FacetedProductsResponse> facetProducts(ProductFilter filter) {
+        return productCatalog.reloadIfEmpty()
+            .map(catalog -> catalog.facetedSearch(filter));
+    }
+    
+    /**
+     * Search-box autocomplete from the in-memory suggestion tree
+     */
+    public Flux<SuggestionResponse> suggest(String prefix, Integer limit) {
+        int max = limit != null && limit > 0
+            ? Math.min(limit, SuggestIndex.MAX_SUGGESTIONS)
+            : SuggestIndex.MAX_SUGGESTIONS;
+        return productCatalog.reloadIfEmpty()
+            .flatMapMany(catalog -> Flux.fromIterable(catalog.suggest(prefix, max)));
     }
     
     public Flux<ProductResponse> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category)
-            .map(this::mapToResponse);
+        return Flux.defer(() -> productCatalog.current()
+            .map(catalog -> Flux.fromIterable(catalog.findByCategory(category)))
+            .orElseGet(() -> productRepository.findByCategory(category).map(ProductService::toProductResponse)));
     }
     
     public Mono<ProductResponse> createProduct(ProductRequest request) {
@@ -65,8 +129,10 @@ public class ProductService {
             .build();
             
         return productRepository.save(product)
-            .map(this::mapToResponse)
-            .doOnSuccess(p -> log.info("Product created: {}", p.getName()));
+            .doOnNext(productCatalog::put)
+            .map(ProductService::toProductResponse)
+            .doOnSuccess(p -> log.info("Product created: {}", p.getName()))
+            .doOnSuccess(p -> analyticsCacheService.onProductsChanged());
     }
     
     public Mono<ProductResponse> updateProduct(Long id, ProductRequest request) {
@@ -90,30 +156,71 @@ public class ProductService {
                 
                 return productRepository.save(product);
             })
-            .map(this::mapToResponse)
+            .doOnNext(productCatalog::put)
+            .map(ProductService::toProductResponse)
+            .doOnSuccess(p -> analyticsCacheService.onProductsChanged())
             .switchIfEmpty(Mono.error(new RuntimeException("Product not found with id: " + id)));
     }
     
     public Mono<Void> deleteProduct(Long id) {
         return productRepository.deleteById(id)
-            .doOnSuccess(v -> log.info("Product deleted: {}", id));
+            .doOnSuccess(v -> productCatalog.remove(id))
+            .doOnSuccess(v -> log.info("Product deleted: {}", id))
+            .doOnSuccess(v -> analyticsCacheService.onProductsChanged());
     }
     
+    /**
+     * Atomically decrement stock with a single conditional UPDATE, so concurrent
+     * checkouts can never both take the last unit. Dashboard caches are left alone,
+     * since a caller's transaction may still roll back; invalidate once it has committed.
+     */
     public Mono<ProductResponse> updateStock(Long productId, Integer quantity) {
-        return productRepository.findById(productId)
-            .flatMap(product -> {
-                int newStock = product.getStockQuantity() - quantity;
-                if (newStock < 0) {
-                    return Mono.error(new RuntimeException("Insufficient stock"));
-                }
-                product.setStockQuantity(newStock);
-                product.setUpdatedAt(LocalDateTime.now());
-                return productRepository.save(product);
-            })
-            .map(this::mapToResponse);
+        return productRepository.decrementStockReturning(productId, quantity)
+            .switchIfEmpty(Mono.defer(() -> productRepository.existsById(productId)
+                .flatMap(exists -> exists
+                    ? Mono.<Product>error(new RuntimeException("Insufficient stock"))
+                    : Mono.<Product>empty())))
+            .doOnNext(productCatalog::put)
+            .map(ProductService::toProductResponse);
+    }
+    
+    /**
+     * Decrement stock for several products in one statement.
+     * Fails with "Insufficient stock" if any line could not be decremented; callers
+     * should run this inside a transaction so the partial update is rolled back,
+     * and invalidate dashboard caches once it has committed.
+     */
+    public Mono<Void> decrementStock(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return Mono.empty();
+        }
+        
+        Long[] ids = new Long[quantitiesByProduct.size()];
+        Integer[] quantities = new Integer[quantitiesByProduct.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantitiesByProduct.entrySet()) {
+            ids[i] = entry.getKey();
+            quantities[i] = entry.getValue();
+            i++;
+        }
+        
+        return productRepository.decrementStockBatch(ids, quantities)
+            .flatMap(updated -> updated == ids.length
+                ? Mono.<Void>empty()
+                : Mono.<Void>error(new RuntimeException("Insufficient stock")));
+    }
+    
+    /**
+     * Bring the catalog snapshot up to date after an order changed stock and units
+     * sold inside a transaction; call once the transaction has committed
+     * @param sold units sold per product id
+     */
+    public void refreshCatalog(Map<Long, Integer> sold) {
+        productCatalog.refresh(sold)
+            .subscribe(v -> { }, e -> log.error("Product catalog refresh failed for {}", sold.keySet(), e));
     }
     
-    private ProductResponse mapToResponse(Product product) {
+    static ProductResponse toProductResponse(Product product) {
         return ProductResponse.builder()
             .id(product.getId())
             .name(product.getName())
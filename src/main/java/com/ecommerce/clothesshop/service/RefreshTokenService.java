@@ -0,0 +1,85 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.config.JwtProperties;
+import com.ecommerce.clothesshop.model.RefreshToken;
+import com.ecommerce.clothesshop.repository.RefreshTokenRepository;
+import com.ecommerce.clothesshop.security.AccessTokenDenylist;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Server-side refresh token store.
+ * Tokens are kept only as SHA-256 hashes. Every refresh consumes the presented token
+ * and issues a new one in the same session; presenting an already used token means it
+ * was copied, so the whole session is revoked, including its access tokens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final JwtProperties jwtProperties;
+
+    public Mono<RefreshToken> store(Long userId, String sessionId, String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.save(RefreshToken.builder()
+            .userId(userId)
+            .tokenHash(hash(refreshToken))
+            .sessionId(sessionId)
+            .expiresAt(now.plusNanos(jwtProperties.getRefreshExpiration() * 1_000_000))
+            .createdAt(now)
+            .build());
+    }
+
+    /**
+     * Consume a refresh token so it cannot be used again
+     * @return the consumed token, whose session the replacement must join
+     */
+    public Mono<RefreshToken> rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        return refreshTokenRepository.consume(tokenHash)
+            .switchIfEmpty(Mono.defer(() -> refreshTokenRepository.findByTokenHash(tokenHash)
+                .filter(token -> token.getRevokedAt() != null)
+                .flatMap(reused -> {
+                    log.warn("Refresh token reuse detected for user {}, revoking session", reused.getUserId());
+                    return revokeSession(reused.getSessionId());
+                })
+                .then(Mono.error(new RuntimeException("Invalid refresh token")))));
+    }
+
+    /**
+     * Revoke every refresh token of a session and refuse its outstanding access tokens
+     */
+    public Mono<Void> revokeSession(String sessionId) {
+        // No access token issued for the session can outlive this
+        LocalDateTime accessTokensExpireBy = LocalDateTime.now().plusNanos(jwtProperties.getExpiration() * 1_000_000);
+        return refreshTokenRepository.revokeSession(sessionId)
+            .then(accessTokenDenylist.revoke(sessionId, accessTokensExpireBy));
+    }
+
+    @Scheduled(cron = "${jwt.cleanup-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired()
+            .subscribe(rows -> log.debug("Purged {} expired refresh tokens", rows),
+                e -> log.error("Refresh token purge failed", e));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
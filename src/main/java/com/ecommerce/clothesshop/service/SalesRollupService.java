@@ -0,0 +1,70 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.model.OrderStatus;
+import com.ecommerce.clothesshop.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps daily_sales_rollup in step with order writes.
+ * Incremental updates run alongside each order change; the scheduled rebuild
+ * recomputes the table from scratch to correct any drift (for example when a
+ * product changes category after it was ordered).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+    private final SalesRollupRepository salesRollupRepository;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final TransactionalOperator transactionalOperator;
+
+    public Mono<Void> recordOrderCreated(Long orderId, OrderStatus status) {
+        return salesRollupRepository.addOrder(orderId, status).then();
+    }
+
+    public Mono<Void> recordStatusChange(Long orderId, OrderStatus previousStatus, OrderStatus newStatus) {
+        if (previousStatus == newStatus) {
+            return Mono.empty();
+        }
+        return salesRollupRepository.moveOrder(orderId, previousStatus, newStatus).then();
+    }
+
+    /**
+     * Rebuild the whole rollup inside one transaction
+     */
+    public Mono<Long> rebuild() {
+        return salesRollupRepository.lockForRebuild()
+            .then(salesRollupRepository.deleteAll())
+            .then(salesRollupRepository.insertFromOrders())
+            .as(transactionalOperator::transactional)
+            .doOnSuccess(rows -> analyticsCacheService.onSalesRollupRebuilt())
+            .doOnSuccess(rows -> log.info("Daily sales rollup rebuilt with {} rows", rows))
+            .doOnError(e -> log.error("Daily sales rollup rebuild failed", e));
+    }
+
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 30 2 * * *}")
+    public void scheduledRebuild() {
+        rebuild().subscribe(rows -> { }, e -> { });
+    }
+
+    /**
+     * Backfill an empty rollup table on startup, e.g. right after the table is first created
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        salesRollupRepository.isEmpty()
+            .filter(Boolean::booleanValue)
+            .flatMap(empty -> {
+                log.info("Daily sales rollup is empty, backfilling from orders");
+                return rebuild();
+            })
+            .subscribe(rows -> { }, e -> log.error("Daily sales rollup backfill failed", e));
+    }
+}
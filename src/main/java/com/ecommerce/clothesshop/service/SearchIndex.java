@@ -0,0 +1,235 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.model.Product;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index for product search over a fixed list of products.
+ * Text is lower-cased, accent-folded, split on non-alphanumerics and lightly stemmed.
+ * Name matches weigh more than brand/category, which weigh more than description.
+ * Every query term must match, either exactly, as a prefix of an indexed term
+ * (search-as-you-type) or within a small edit distance (typos); results are ranked
+ * by the summed, IDF-weighted scores of those matches.
+ */
+final class SearchIndex {
+
+    private record Field(Function<Product, String> text, float boost) {
+    }
+
+    private static final List<Field> FIELDS = List.of(
+        new Field(Product::getName, 3.0f),
+        new Field(Product::getBrand, 2.0f),
+        new Field(Product::getCategory, 2.0f),
+        new Field(Product::getSubCategory, 1.5f),
+        new Field(Product::getColor, 1.0f),
+        new Field(Product::getDescription, 1.0f)
+    );
+
+    static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float FUZZY = 0.5f;
+
+    /**
+     * Documents containing a term and the field-weighted frequency of the term in each
+     */
+    private record Postings(int[] docs, float[] weights) {
+    }
+
+    private final int documentCount;
+    private final String[] terms; // Sorted, for prefix ranges
+    private final Map<String, Postings> postings;
+
+    SearchIndex(List<Product> products) {
+        this.documentCount = products.size();
+        Map<String, Map<Integer, Float>> building = new HashMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            for (Field field : FIELDS) {
+                for (String term : analyze(field.text().apply(products.get(doc)))) {
+                    building.computeIfAbsent(term, t -> new TreeMap<>()).merge(doc, field.boost(), Float::sum);
+                }
+            }
+        }
+
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((term, byDoc) -> {
+            int[] docs = new int[byDoc.size()];
+            float[] weights = new float[byDoc.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : byDoc.entrySet()) {
+                docs[i] = entry.getKey();
+                weights[i] = entry.getValue();
+                i++;
+            }
+            postings.put(term, new Postings(docs, weights));
+        });
+        this.terms = postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+    }
+
+    /**
+     * Positions of the matching products, best match first (ties in position order)
+     */
+    int[] search(String query) {
+        List<String> queryTerms = analyze(query);
+        if (queryTerms.isEmpty()) {
+            return new int[0];
+        }
+
+        Map<Integer, Float> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Float> termScores = scoreTerm(queryTerm);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // Every query term must match
+                Map<Integer, Float> previous = scores;
+                termScores.keySet().retainAll(previous.keySet());
+                termScores.replaceAll((doc, score) -> score + previous.get(doc));
+                scores = termScores;
+            }
+            if (scores.isEmpty()) {
+                return new int[0];
+            }
+        }
+
+        Map<Integer, Float> finalScores = scores;
+        return finalScores.keySet().stream()
+            .sorted(Comparator.<Integer, Float>comparing(finalScores::get).reversed()
+                .thenComparing(Comparator.naturalOrder()))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Best score per document for one query term over its exact, prefix and fuzzy matches
+     */
+    private Map<Integer, Float> scoreTerm(String queryTerm) {
+        Map<String, Float> matches = new HashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            matches.put(queryTerm, EXACT);
+        }
+        for (int i = firstWithPrefix(queryTerm); i < terms.length && terms[i].startsWith(queryTerm); i++) {
+            matches.putIfAbsent(terms[i], PREFIX);
+        }
+        int maxEdits = queryTerm.length() >= 8 ? 2 : queryTerm.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            for (String term : terms) {
+                if (!matches.containsKey(term) && withinEditDistance(queryTerm, term, maxEdits)) {
+                    matches.put(term, FUZZY);
+                }
+            }
+        }
+
+        Map<Integer, Float> scores = new HashMap<>();
+        matches.forEach((term, matchWeight) -> {
+            Postings termPostings = postings.get(term);
+            float idf = (float) Math.log(1.0 + (double) documentCount / termPostings.docs().length);
+            for (int i = 0; i < termPostings.docs().length; i++) {
+                float score = matchWeight * termPostings.weights()[i] * idf;
+                scores.merge(termPostings.docs()[i], score, Math::max);
+            }
+        });
+        return scores;
+    }
+
+    private int firstWithPrefix(String prefix) {
+        int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Edit distance check counting insertions, deletions, substitutions and adjacent
+     * transpositions ("shrit" -> "shirt") as one edit each; gives up as soon as the
+     * bound is exceeded
+     */
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    /**
+     * Lower-case, accent-fold, tokenize and stem
+     */
+    static List<String> analyze(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(stem(token));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Lower-case and strip accents ("Café" -> "cafe")
+     */
+    static String fold(String text) {
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        if (lowerCase.chars().allMatch(c -> c < 0x80)) {
+            return lowerCase; // Plain ASCII has no accents to strip
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lowerCase, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Light English suffix stripping: plurals and common verb endings
+     */
+    static String stem(String token) {
+        if (token.length() <= 3) {
+            return token;
+        }
+        if (token.endsWith("ies") && token.length() > 4) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.endsWith("sses") || token.endsWith("xes") || token.endsWith("ches") || token.endsWith("shes")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        if (token.endsWith("ing") && token.length() > 5) {
+            return token.substring(0, token.length() - 3);
+        }
+        if (token.endsWith("ed") && token.length() > 4) {
+            return token.substring(0, token.length() - 2);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductSort;
+import com.ecommerce.clothesshop.model.Product;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed orderings of a fixed list of products for keyset paging.
+ * Each sort keeps the product positions in order together with the sort key of every
+ * product. A cursor carries the (key, id) of the last product on a page, so the next
+ * page starts with a binary search and stays stable when products before it are
+ * added or removed.
+ */
+final class SortIndex {
+
+    /**
+     * Sort key of one product; value is a price, creation time or units sold
+     */
+    record Key(Comparable<?> value, long id) {
+    }
+
+    private final Map<ProductSort, int[]> orders = new EnumMap<>(ProductSort.class);
+    private final Map<ProductSort, Key[]> keys = new EnumMap<>(ProductSort.class);
+    private final Map<ProductSort, Comparator<Key>> comparators = new EnumMap<>(ProductSort.class);
+
+    SortIndex(List<Product> products, Map<Long, Long> unitsSold) {
+        add(products, ProductSort.PRICE_ASC, Product::getPrice, false);
+        add(products, ProductSort.PRICE_DESC, Product::getPrice, true);
+        add(products, ProductSort.NEWEST, Product::getCreatedAt, true);
+        add(products, ProductSort.BEST_SELLING, product -> unitsSold.getOrDefault(product.getId(), 0L), true);
+    }
+
+    private SortIndex() {
+    }
+
+    /**
+     * The same orderings with best-selling re-sorted for new unit counts
+     * @param products the products this index was built from, in the same positions
+     */
+    SortIndex withUnitsSold(List<Product> products, Map<Long, Long> unitsSold) {
+        SortIndex updated = new SortIndex();
+        updated.orders.putAll(orders);
+        updated.keys.putAll(keys);
+        updated.comparators.putAll(comparators);
+        updated.add(products, ProductSort.BEST_SELLING, product -> unitsSold.getOrDefault(product.getId(), 0L), true);
+        return updated;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void add(List<Product> products, ProductSort sort, Function<Product, Comparable<?>> value, boolean descending) {
+        Comparator<Comparable> byValue = Comparator.nullsLast(descending
+            ? Comparator.<Comparable>reverseOrder()
+            : Comparator.<Comparable>naturalOrder());
+        Comparator<Key> comparator = Comparator.comparing((Key key) -> (Comparable) key.value(), byValue)
+            .thenComparingLong(Key::id);
+
+        Key[] sortKeys = products.stream()
+            .map(product -> new Key(value.apply(product), product.getId()))
+            .toArray(Key[]::new);
+        int[] order = IntStream.range(0, products.size())
+            .boxed()
+            .sorted((a, b) -> comparator.compare(sortKeys[a], sortKeys[b]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+        orders.put(sort, order);
+        keys.put(sort, sortKeys);
+        comparators.put(sort, comparator);
+    }
+
+    /**
+     * Positions of up to limit matching products in sort order, starting after the given key
+     * @param after key of the last product of the previous page, or null for the first page
+     */
+    int[] page(ProductSort sort, BitSet matches, Key after, int limit) {
+        int[] order = orders.get(sort);
+        Key[] sortKeys = keys.get(sort);
+        int start = after != null ? firstAfter(order, sortKeys, comparators.get(sort), after) : 0;
+
+        int[] page = new int[limit];
+        int found = 0;
+        for (int i = start; i < order.length && found < limit; i++) {
+            if (matches.get(order[i])) {
+                page[found++] = order[i];
+            }
+        }
+        return Arrays.copyOf(page, found);
+    }
+
+    Key key(ProductSort sort, int position) {
+        return keys.get(sort)[position];
+    }
+
+    private static int firstAfter(int[] order, Key[] sortKeys, Comparator<Key> comparator, Key after) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(sortKeys[order[mid]], after) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Opaque cursor naming the sort, so a cursor cannot be replayed against another ordering
+     */
+    static String encodeCursor(ProductSort sort, Object value, long id) {
+        String raw = sort.name() + "|" + (value != null ? value : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Key decodeCursor(ProductSort sort, String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException(cursor);
+            }
+            String value = parts[1];
+            Comparable<?> parsed = value.isEmpty() ? null : switch (sort) {
+                case PRICE_ASC, PRICE_DESC -> new BigDecimal(value);
+                case NEWEST -> LocalDateTime.parse(value);
+                case BEST_SELLING, RELEVANCE -> Long.parseLong(value);
+            };
+            return new Key(parsed, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
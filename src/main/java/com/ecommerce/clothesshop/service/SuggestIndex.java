@@ -0,0 +1,288 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.SuggestionResponse;
+import com.ecommerce.clothesshop.model.Product;
+
+import java.util.*;
+
+/**
+ * Prefix tree of search-box suggestions: names, brands and categories of active products.
+ * Every node keeps the best suggestions of its subtree precomputed, so a lookup is a
+ * walk down the typed prefix. Each phrase is reachable from the start of any of its
+ * words ("shirt" finds "Classic T-Shirt"). Suggestions are ranked by units sold; a
+ * brand or category counts the units of all of its active products.
+ * The tree is immutable: a change copies only the nodes on the paths it touches.
+ */
+final class SuggestIndex {
+    static final int MAX_SUGGESTIONS = 10;
+
+    private static final int MAX_KEY_LENGTH = 48;
+
+    enum Type {
+        PRODUCT, BRAND, CATEGORY
+    }
+
+    /**
+     * What a suggestion stands for; productId is null for brands and categories
+     */
+    private record Identity(Type type, String normalized, Long productId) {
+    }
+
+    /**
+     * One suggestion with its aggregated units sold and the number of active products behind it
+     */
+    private record Entry(Identity id, String text, long unitsSold, int products) {
+    }
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::unitsSold).reversed()
+        .thenComparing(Entry::text)
+        .thenComparing(entry -> entry.id().type());
+
+    private record Delta(String key, Identity id, String text, long unitsSold, int products) {
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(new char[0], new Node[0], new Entry[0], new Entry[0]);
+
+        final char[] labels; // Sorted
+        final Node[] children;
+        final Entry[] entries; // Suggestions whose key ends here
+        final Entry[] ownTop; // Best of entries, kept so path copies need not re-rank them
+        final Entry[] top; // Best suggestions of the whole subtree
+
+        Node(char[] labels, Node[] children, Entry[] entries, Entry[] ownTop) {
+            this.labels = labels;
+            this.children = children;
+            this.entries = entries;
+            this.ownTop = ownTop;
+            this.top = best(ownTop, children);
+        }
+
+        Node(char[] labels, Node[] children, Entry[] entries) {
+            this(labels, children, entries, best(entries, new Node[0]));
+        }
+
+        Node child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        boolean isEmpty() {
+            return labels.length == 0 && entries.length == 0;
+        }
+
+        private static Entry[] best(Entry[] entries, Node[] children) {
+            if (entries.length == 0 && children.length <= 1) {
+                // Inner node of a single chain: nothing to re-rank
+                return children.length == 1 ? children[0].top : entries;
+            }
+            PriorityQueue<Entry> worstFirst = new PriorityQueue<>(MAX_SUGGESTIONS + 1, RANKING.reversed());
+            Set<Identity> seen = new HashSet<>();
+            for (Entry entry : entries) {
+                offer(worstFirst, seen, entry);
+            }
+            for (Node child : children) {
+                for (Entry entry : child.top) {
+                    offer(worstFirst, seen, entry);
+                }
+            }
+            Entry[] best = worstFirst.toArray(new Entry[0]);
+            Arrays.sort(best, RANKING);
+            return best;
+        }
+
+        private static void offer(PriorityQueue<Entry> worstFirst, Set<Identity> seen, Entry entry) {
+            // A phrase is stored under each of its word starts, so it may come up more than once
+            if (seen.add(entry.id())) {
+                worstFirst.offer(entry);
+                if (worstFirst.size() > MAX_SUGGESTIONS) {
+                    worstFirst.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Products leaving and entering the index, applied in one pass by {@link #apply}
+     */
+    static final class Changes {
+        private final List<Delta> deltas = new ArrayList<>();
+
+        Changes remove(Product product, long unitsSold) {
+            collect(product, -unitsSold, -1);
+            return this;
+        }
+
+        Changes add(Product product, long unitsSold) {
+            collect(product, unitsSold, 1);
+            return this;
+        }
+
+        /**
+         * Replace a product, skipping the work when nothing the index shows or ranks by changed
+         */
+        Changes replace(Product before, long unitsBefore, Product after, long unitsAfter) {
+            if (before != null && unitsBefore == unitsAfter && isActive(before) == isActive(after)
+                && Objects.equals(before.getName(), after.getName())
+                && Objects.equals(before.getBrand(), after.getBrand())
+                && Objects.equals(before.getCategory(), after.getCategory())) {
+                return this;
+            }
+            if (before != null) {
+                remove(before, unitsBefore);
+            }
+            return add(after, unitsAfter);
+        }
+
+        boolean isEmpty() {
+            return deltas.isEmpty();
+        }
+
+        private void collect(Product product, long unitsSold, int products) {
+            if (!isActive(product)) {
+                return;
+            }
+            collect(Type.PRODUCT, product.getName(), product.getId(), unitsSold, products);
+            collect(Type.BRAND, product.getBrand(), null, unitsSold, products);
+            collect(Type.CATEGORY, product.getCategory(), null, unitsSold, products);
+        }
+
+        private void collect(Type type, String text, Long productId, long unitsSold, int products) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            Identity id = new Identity(type, normalized, productId);
+            for (int start = 0; start < normalized.length(); start++) {
+                if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                    String key = normalized.substring(start, Math.min(normalized.length(), start + MAX_KEY_LENGTH));
+                    deltas.add(new Delta(key, id, text.trim(), unitsSold, products));
+                }
+            }
+        }
+
+        private static boolean isActive(Product product) {
+            return Boolean.TRUE.equals(product.getIsActive());
+        }
+    }
+
+    // Declared after RANKING, which building the empty root needs
+    static final SuggestIndex EMPTY = new SuggestIndex(Node.EMPTY);
+
+    private final Node root;
+
+    private SuggestIndex(Node root) {
+        this.root = root;
+    }
+
+    SuggestIndex apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        // Stable sort: a product's removal stays ahead of its re-insertion under the same key
+        List<Delta> sorted = new ArrayList<>(changes.deltas);
+        sorted.sort(Comparator.comparing(Delta::key));
+        return new SuggestIndex(update(root, sorted, 0));
+    }
+
+    /**
+     * Best suggestions for what has been typed so far, most sold first
+     */
+    List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH) && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(limit, node.top.length);
+        List<SuggestionResponse> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entry entry = node.top[i];
+            suggestions.add(SuggestionResponse.builder()
+                .text(entry.text())
+                .type(entry.id().type().name())
+                .productId(entry.id().productId())
+                .build());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Copy of the node with the deltas applied; deltas are sorted by key and all share
+     * the node's key as a prefix, so each child's deltas form one contiguous run
+     */
+    private static Node update(Node node, List<Delta> deltas, int depth) {
+        int i = 0;
+        Map<Identity, Entry> entries = null;
+        while (i < deltas.size() && deltas.get(i).key().length() == depth) {
+            if (entries == null) {
+                entries = new LinkedHashMap<>();
+                for (Entry entry : node.entries) {
+                    entries.put(entry.id(), entry);
+                }
+            }
+            applyDelta(entries, deltas.get(i++));
+        }
+
+        TreeMap<Character, Node> children = new TreeMap<>();
+        for (int c = 0; c < node.labels.length; c++) {
+            children.put(node.labels[c], node.children[c]);
+        }
+        while (i < deltas.size()) {
+            char label = deltas.get(i).key().charAt(depth);
+            int end = i;
+            while (end < deltas.size() && deltas.get(end).key().charAt(depth) == label) {
+                end++;
+            }
+            Node child = update(children.getOrDefault(label, Node.EMPTY), deltas.subList(i, end), depth + 1);
+            if (child.isEmpty()) {
+                children.remove(label);
+            } else {
+                children.put(label, child);
+            }
+            i = end;
+        }
+
+        char[] labels = new char[children.size()];
+        int c = 0;
+        for (Character label : children.keySet()) {
+            labels[c++] = label;
+        }
+        Node[] childNodes = children.values().toArray(new Node[0]);
+        return entries != null
+            ? new Node(labels, childNodes, entries.values().toArray(new Entry[0]))
+            : new Node(labels, childNodes, node.entries, node.ownTop);
+    }
+
+    private static void applyDelta(Map<Identity, Entry> entries, Delta delta) {
+        Entry entry = entries.get(delta.id());
+        if (entry == null) {
+            if (delta.products() > 0) {
+                entries.put(delta.id(), new Entry(delta.id(), delta.text(), Math.max(0, delta.unitsSold()), delta.products()));
+            }
+            return;
+        }
+        int products = entry.products() + delta.products();
+        if (products <= 0) {
+            entries.remove(delta.id());
+        } else {
+            entries.put(delta.id(), new Entry(entry.id(), entry.text(), Math.max(0, entry.unitsSold() + delta.unitsSold()), products));
+        }
+    }
+
+    /**
+     * Folded words separated by single spaces ("  T-Shirt " -> "t shirt")
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SearchIndex.NON_ALPHANUMERIC.matcher(SearchIndex.fold(text)).replaceAll(" ").trim();
+    }
+}
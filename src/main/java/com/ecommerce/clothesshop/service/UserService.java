@@ -7,13 +7,16 @@ import com.ecommerce.clothesshop.model.User;
 import com.ecommerce.clothesshop.model.UserRole;
 import com.ecommerce.clothesshop.repository.UserRepository;
 import com.ecommerce.clothesshop.security.JwtTokenProvider;
+import com.ecommerce.clothesshop.security.LoginAttemptThrottle;
+import com.ecommerce.clothesshop.security.PasswordHashingService;
+import com.ecommerce.clothesshop.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -21,8 +24,10 @@ import java.time.LocalDateTime;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginAttemptThrottle loginAttemptThrottle;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Register a new user
@@ -30,42 +35,30 @@ public class UserService {
     public Mono<AuthResponse> registerUser(RegisterRequest request) {
         log.info("Attempting to register user with email: {}", request.getEmail());
 
-        return userRepository.findByEmail(request.getEmail())
+        return loginAttemptThrottle.acquire(request.getEmail())
+                .then(userRepository.findByEmail(request.getEmail()))
                 .flatMap(existingUser -> {
                     log.warn("User already exists with email: {}", request.getEmail());
                     return Mono.<User>error(new RuntimeException("Email already exists"));
                 })
-                .switchIfEmpty(Mono.defer(() -> {
-                    User newUser = User.builder()
-                            .email(request.getEmail())
-                            .passwordHash(passwordEncoder.encode(request.getPassword()))
-                            .firstName(request.getFirstName())
-                            .lastName(request.getLastName())
-                            .phone(request.getPhone())
-                            .role(UserRole.CUSTOMER)
-                            .createdAt(LocalDateTime.now())
-                            .updatedAt(LocalDateTime.now())
-                            .build();
-
-                    return userRepository.save(newUser);
-                }))
-                .map(user -> {
+                .switchIfEmpty(Mono.defer(() -> passwordHashingService.encode(request.getPassword()))
+                        .flatMap(passwordHash -> {
+                            User newUser = User.builder()
+                                    .email(request.getEmail())
+                                    .passwordHash(passwordHash)
+                                    .firstName(request.getFirstName())
+                                    .lastName(request.getLastName())
+                                    .phone(request.getPhone())
+                                    .role(UserRole.CUSTOMER)
+                                    .createdAt(LocalDateTime.now())
+                                    .updatedAt(LocalDateTime.now())
+                                    .build();
+
+                            return userRepository.save(newUser);
+                        }))
+                .flatMap(user -> {
                     log.info("User registered successfully: {}", user.getEmail());
-
-                    String accessToken = jwtTokenProvider.generateAccessToken(
-                            user.getId(), user.getEmail(), user.getRole());
-                    String refreshToken = jwtTokenProvider.generateRefreshToken(
-                            user.getId(), user.getEmail());
-
-                    return new AuthResponse(
-                            accessToken,
-                            refreshToken,
-                            user.getId(),
-                            user.getEmail(),
-                            user.getFirstName(),
-                            user.getLastName(),
-                            user.getRole().name()
-                    );
+                    return issueTokens(user, UUID.randomUUID().toString());
                 });
     }
 
@@ -75,64 +68,80 @@ public class UserService {
     public Mono<AuthResponse> loginUser(LoginRequest request) {
         log.info("Attempting to login user with email: {}", request.getEmail());
 
-        return userRepository.findByEmail(request.getEmail())
-                .switchIfEmpty(Mono.error(new RuntimeException("Invalid email or password")))
-                .flatMap(user -> {
-                    if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-                        log.warn("Invalid password for user: {}", request.getEmail());
-                        return Mono.error(new RuntimeException("Invalid email or password"));
-                    }
-
-                    log.info("User logged in successfully: {}", user.getEmail());
-
-                    String accessToken = jwtTokenProvider.generateAccessToken(
-                            user.getId(), user.getEmail(), user.getRole());
-                    String refreshToken = jwtTokenProvider.generateRefreshToken(
-                            user.getId(), user.getEmail());
-
-                    return Mono.just(new AuthResponse(
-                            accessToken,
-                            refreshToken,
-                            user.getId(),
-                            user.getEmail(),
-                            user.getFirstName(),
-                            user.getLastName(),
-                            user.getRole().name()
-                    ));
-                });
+        return loginAttemptThrottle.acquire(request.getEmail())
+                .then(userRepository.findByEmail(request.getEmail()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    loginAttemptThrottle.recordFailure(request.getEmail());
+                    return Mono.error(new RuntimeException("Invalid email or password"));
+                }))
+                .flatMap(user -> passwordHashingService.matches(request.getPassword(), user.getPasswordHash())
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                log.warn("Invalid password for user: {}", request.getEmail());
+                                loginAttemptThrottle.recordFailure(request.getEmail());
+                                return Mono.error(new RuntimeException("Invalid email or password"));
+                            }
+
+                            log.info("User logged in successfully: {}", user.getEmail());
+                            loginAttemptThrottle.recordSuccess(request.getEmail());
+                            return issueTokens(user, UUID.randomUUID().toString());
+                        }));
     }
 
     /**
-     * Refresh access token
+     * Refresh access token, rotating the refresh token
      */
     public Mono<AuthResponse> refreshToken(String refreshToken) {
         log.info("Attempting to refresh token");
 
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        // Reject forged or expired tokens before touching the database
+        if (jwtTokenProvider.parseToken(refreshToken).isEmpty()) {
             return Mono.error(new RuntimeException("Invalid refresh token"));
         }
 
-        String email = jwtTokenProvider.getEmailFromToken(refreshToken);
-        Long userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
-
-        return userRepository.findByEmail(email)
-                .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
-                .map(user -> {
-                    String newAccessToken = jwtTokenProvider.generateAccessToken(
-                            user.getId(), user.getEmail(), user.getRole());
-                    String newRefreshToken = jwtTokenProvider.generateRefreshToken(
-                            user.getId(), user.getEmail());
-
-                    return new AuthResponse(
-                            newAccessToken,
-                            newRefreshToken,
-                            user.getId(),
-                            user.getEmail(),
-                            user.getFirstName(),
-                            user.getLastName(),
-                            user.getRole().name()
-                    );
-                });
+        return refreshTokenService.rotate(refreshToken)
+                .flatMap(consumed -> userRepository.findById(consumed.getUserId())
+                        .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
+                        .flatMap(user -> issueTokens(user, consumed.getSessionId())));
+    }
+
+    /**
+     * Logout: revoke the session of the presented access token and/or refresh token
+     */
+    public Mono<Void> logout(UserPrincipal principal, String refreshToken) {
+        String sessionId = principal != null ? principal.getSessionId() : null;
+        if (sessionId == null && refreshToken != null) {
+            sessionId = jwtTokenProvider.parseToken(refreshToken)
+                    .map(UserPrincipal::getSessionId)
+                    .orElse(null);
+        }
+        if (sessionId == null) {
+            return Mono.empty();
+        }
+
+        log.info("Revoking session {}", sessionId);
+        return refreshTokenService.revokeSession(sessionId);
+    }
+
+    /**
+     * Issue an access and refresh token pair for a session, storing the refresh token
+     */
+    private Mono<AuthResponse> issueTokens(User user, String sessionId) {
+        String accessToken = jwtTokenProvider.generateAccessToken(
+                user.getId(), user.getEmail(), user.getRole(), sessionId);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(
+                user.getId(), user.getEmail(), sessionId);
+
+        return refreshTokenService.store(user.getId(), sessionId, refreshToken)
+                .thenReturn(new AuthResponse(
+                        accessToken,
+                        refreshToken,
+                        user.getId(),
+                        user.getEmail(),
+                        user.getFirstName(),
+                        user.getLastName(),
+                        user.getRole().name()
+                ));
     }
 
     /**
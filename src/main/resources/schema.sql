@@ -84,15 +84,74 @@ CREATE TABLE IF NOT EXISTS order_items (
     FOREIGN KEY (product_id) REFERENCES products(id)
     );
 
+-- Daily Sales Rollup Table (one row per day x status x payment method x category)
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+                                                  sales_date DATE NOT NULL,
+                                                  status VARCHAR(20) NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    order_count INTEGER NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    units INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, status, payment_method, category)
+    );
+
+-- Refresh Tokens Table (stored as SHA-256 hashes; one session per login, rotated on every refresh)
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+                                              id BIGSERIAL PRIMARY KEY,
+                                              user_id BIGINT NOT NULL,
+                                              token_hash VARCHAR(64) NOT NULL UNIQUE,
+    session_id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+-- Revoked Access Tokens Table (token ids or session ids, kept until the tokens they cover expire)
+CREATE TABLE IF NOT EXISTS revoked_access_tokens (
+                                                     token_id VARCHAR(36) PRIMARY KEY,
+                                                     expires_at TIMESTAMP NOT NULL,
+                                                     revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    );
+
+-- Paystack Webhook Inbox (one row per event and reference; applied to its order after the webhook returns)
+CREATE TABLE IF NOT EXISTS payment_events (
+                                              id BIGSERIAL PRIMARY KEY,
+                                              event VARCHAR(50) NOT NULL,
+    reference VARCHAR(100) NOT NULL,
+    order_id BIGINT,
+    status VARCHAR(20),
+    amount BIGINT,
+    currency VARCHAR(3),
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    rejection TEXT, -- Why the payment was closed without being applied, e.g. it paid less than the order total
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    UNIQUE (event, reference)
+    );
+
 -- Indexes
 CREATE INDEX IF NOT EXISTS idx_products_category ON products(category);
 CREATE INDEX IF NOT EXISTS idx_products_brand ON products(brand);
 CREATE INDEX IF NOT EXISTS idx_products_price ON products(price);
 CREATE INDEX IF NOT EXISTS idx_products_active ON products(is_active);
+-- Filtered listing before the catalog is loaded: WHERE is_active AND category = ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_products_active_category_id ON products(is_active, category, id);
 CREATE INDEX IF NOT EXISTS idx_orders_user ON orders(user_id);
 CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
 CREATE INDEX IF NOT EXISTS idx_orders_created ON orders(created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_created_id ON orders(created_at DESC, id DESC);
+-- Batched item loading for order listings: WHERE order_id = ANY(:orderIds)
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_cart_user ON shopping_carts(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_session ON refresh_tokens(session_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens(expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_access_tokens_expires ON revoked_access_tokens(expires_at);
+-- Retry job: events not yet applied
+CREATE INDEX IF NOT EXISTS idx_payment_events_pending ON payment_events(id) WHERE processed_at IS NULL;
 
 -- Sample Data
 -- INSERT INTO users (email, password_hash, first_name, last_name, role) VALUES
@@ -0,0 +1,64 @@
+package com.ecommerce.clothesshop.security;
+
+import com.ecommerce.clothesshop.config.JwtProperties;
+import com.ecommerce.clothesshop.model.UserRole;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signatures-0123456789abcdef";
+    private static final long HOUR = 3_600_000L;
+
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(properties());
+
+    @Test
+    void issuedAccessTokenIsParsed() {
+        String token = jwtTokenProvider.generateAccessToken(42L, "customer@example.com", UserRole.CUSTOMER, "session-1");
+
+        assertThat(jwtTokenProvider.parseToken(token)).hasValueSatisfying(principal -> {
+            assertThat(principal.getUserId()).isEqualTo(42L);
+            assertThat(principal.getRole()).isEqualTo(UserRole.CUSTOMER);
+        });
+    }
+
+    @Test
+    void untrustworthyTokensAreEmptyInsteadOfThrowing() {
+        long now = System.currentTimeMillis();
+
+        assertThat(jwtTokenProvider.parseToken(sign(Map.of("userId", 42L), new Date(now + HOUR), new Date(now + 2 * HOUR))))
+            .as("not valid yet").isEmpty();
+        assertThat(jwtTokenProvider.parseToken(sign(Map.of("userId", "42"), null, new Date(now + HOUR))))
+            .as("user id of the wrong type").isEmpty();
+        assertThat(jwtTokenProvider.parseToken(sign(Map.of("userId", 42L, "role", "ROOT"), null, new Date(now + HOUR))))
+            .as("unknown role").isEmpty();
+        assertThat(jwtTokenProvider.parseToken(sign(Map.of("userId", 42L), null, new Date(now - HOUR))))
+            .as("expired").isEmpty();
+        assertThat(jwtTokenProvider.parseToken("not.a.token")).as("malformed").isEmpty();
+        assertThat(jwtTokenProvider.parseToken("")).as("empty").isEmpty();
+    }
+
+    private static String sign(Map<String, Object> claims, Date notBefore, Date expiration) {
+        return Jwts.builder()
+            .claims(claims)
+            .subject("customer@example.com")
+            .notBefore(notBefore)
+            .expiration(expiration)
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS512)
+            .compact();
+    }
+
+    private static JwtProperties properties() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(HOUR);
+        properties.setRefreshExpiration(24 * HOUR);
+        return properties;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.repository.AnalyticsRepository;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+    private final List<String> statements = new ArrayList<>();
+
+    @Test
+    void dashboardSummaryIssuesOneQuery() {
+        AnalyticsService analyticsService = new AnalyticsService(new AnalyticsRepository(databaseClient(Map.of(
+            "total_revenue", new BigDecimal("300.00"),
+            "total_orders", 3L,
+            "pending_orders", 1L,
+            "delivered_orders", 2L,
+            "total_customers", 2L,
+            "total_products_sold", 7L))));
+
+        StepVerifier.create(analyticsService.getDashboardSummary())
+            .assertNext(summary -> {
+                assertThat(summary.getTotalRevenue()).isEqualByComparingTo("300.00");
+                assertThat(summary.getTotalOrders()).isEqualTo(3);
+                assertThat(summary.getTotalCustomers()).isEqualTo(2);
+                assertThat(summary.getTotalProductsSold()).isEqualTo(7);
+                assertThat(summary.getPendingOrders()).isEqualTo(1);
+                assertThat(summary.getCompletedOrders()).isEqualTo(2);
+                assertThat(summary.getAverageOrderValue()).isEqualByComparingTo("100.00");
+                assertThat(summary.getConversionRate()).isEqualTo(150.0);
+            })
+            .verifyComplete();
+
+        assertThat(statements).hasSize(1);
+    }
+
+    /**
+     * A client that records every statement it is given and answers each with one row of the given columns
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private DatabaseClient databaseClient(Map<String, Object> columns) {
+        Row row = mock(Row.class);
+        when(row.get(anyString(), any(Class.class))).thenAnswer(invocation -> columns.get(invocation.getArgument(0, String.class)));
+
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        when(databaseClient.sql(anyString())).thenAnswer(statement -> {
+            statements.add(statement.getArgument(0));
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+            when(spec.bind(anyString(), any())).thenReturn(spec);
+            when(spec.map(any(BiFunction.class))).thenAnswer(mapping -> {
+                Object mapped = mapping.getArgument(0, BiFunction.class).apply(row, mock(RowMetadata.class));
+                RowsFetchSpec rows = mock(RowsFetchSpec.class);
+                when(rows.one()).thenReturn(Mono.just(mapped));
+                when(rows.all()).thenReturn(Flux.just(mapped));
+                return rows;
+            });
+            return spec;
+        });
+        return databaseClient;
+    }
+}
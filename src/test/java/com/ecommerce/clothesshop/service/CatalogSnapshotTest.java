@@ -0,0 +1,71 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductFilter;
+import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.dto.ProductSort;
+import com.ecommerce.clothesshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+    private final Product tee = product(1L, "Classic Tee", "SHIRTS", 10);
+    private final Product jeans = product(2L, "Slim Jeans", "PANTS", 25);
+    private final CatalogSnapshot catalog = CatalogSnapshot.of(List.of(tee, jeans), Map.of(1L, 5L));
+
+    @Test
+    void stockUpdateIsServedAndReordersBestSellers() {
+        Product soldJeans = product(2L, "Slim Jeans", "PANTS", 15);
+
+        CatalogSnapshot updated = catalog.with(List.of(soldJeans), Map.of(2L, 10));
+
+        assertThat(updated.findById(2L)).map(ProductResponse::getStockQuantity).contains(15);
+        assertThat(updated.search("jeans")).extracting(ProductResponse::getStockQuantity).containsExactly(15);
+        assertThat(updated.filter(ProductFilter.builder().category("PANTS").build()))
+            .extracting(ProductResponse::getStockQuantity).containsExactly(15);
+        assertThat(ids(updated, ProductSort.BEST_SELLING)).containsExactly(2L, 1L);
+        assertThat(updated.version()).isEqualTo(catalog.version() + 1);
+        // The snapshot it was derived from is left as it was
+        assertThat(catalog.findById(2L)).map(ProductResponse::getStockQuantity).contains(25);
+        assertThat(ids(catalog, ProductSort.BEST_SELLING)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void indexedFieldChangeIsSearchable() {
+        Product renamed = product(1L, "Linen Shirt", "SHIRTS", 9);
+
+        CatalogSnapshot updated = catalog.with(List.of(renamed));
+
+        assertThat(updated.search("linen")).extracting(ProductResponse::getId).containsExactly(1L);
+        assertThat(updated.search("tee")).isEmpty();
+        assertThat(updated.findById(1L)).map(ProductResponse::getStockQuantity).contains(9);
+    }
+
+    @Test
+    void unchangedProductKeepsTheSnapshot() {
+        assertThat(catalog.with(List.of(tee))).isSameAs(catalog);
+    }
+
+    private static List<Long> ids(CatalogSnapshot catalog, ProductSort sort) {
+        return catalog.page(new ProductFilter(), null, sort, null, 10).getItems().stream()
+            .map(ProductResponse::getId)
+            .toList();
+    }
+
+    private static Product product(Long id, String name, String category, int stock) {
+        return Product.builder()
+            .id(id)
+            .name(name)
+            .price(new BigDecimal("19.99"))
+            .category(category)
+            .stockQuantity(stock)
+            .isActive(true)
+            .createdAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+            .build();
+    }
+}
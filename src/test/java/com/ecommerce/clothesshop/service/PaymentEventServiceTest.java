@@ -0,0 +1,125 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.OrderResponse;
+import com.ecommerce.clothesshop.model.PaymentEvent;
+import com.ecommerce.clothesshop.model.PaymentStatus;
+import com.ecommerce.clothesshop.repository.PaymentEventRepository;
+import com.ecommerce.clothesshop.support.TestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Webhook events stored and applied against a real PostgreSQL, with the order side mocked
+ */
+class PaymentEventServiceTest {
+    private static final Long ORDER_ID = 7L;
+    private static final String REFERENCE = "ORDER-7";
+
+    private static TestDatabase database;
+
+    private PaymentEventRepository paymentEventRepository;
+    private OrderService orderService;
+    private PaymentEventService paymentEventService;
+
+    @BeforeAll
+    static void startDatabase() {
+        database = TestDatabase.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        database.clear();
+        paymentEventRepository = database.repository(PaymentEventRepository.class);
+        orderService = mock(OrderService.class);
+        OrderResponse order = OrderResponse.builder().id(ORDER_ID).totalAmount(new BigDecimal("100.00")).build();
+        when(orderService.getOrderById(eq(ORDER_ID), any())).thenReturn(Mono.just(order));
+        when(orderService.updatePaymentStatus(eq(ORDER_ID), isNull(), eq(PaymentStatus.COMPLETED), anyString()))
+            .thenReturn(Mono.just(order));
+        paymentEventService = new PaymentEventService(paymentEventRepository, orderService,
+            database.transactionalOperator(), JsonMapper.builder().build());
+        ReflectionTestUtils.setField(paymentEventService, "currency", "KES");
+    }
+
+    @Test
+    void redeliveredEventIsStoredAndAppliedOnce() {
+        byte[] payload = charge(10_000, "KES");
+
+        StepVerifier.create(paymentEventService.receive(payload)).verifyComplete();
+        StepVerifier.create(paymentEventService.receive(payload)).verifyComplete();
+        StepVerifier.create(paymentEventService.confirm(ORDER_ID, null, REFERENCE)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(paymentEventService.confirm(ORDER_ID, null, REFERENCE)).expectNextCount(1).verifyComplete();
+
+        assertThat(paymentEventRepository.count().block()).isEqualTo(1);
+        verify(orderService, times(1)).updatePaymentStatus(ORDER_ID, null, PaymentStatus.COMPLETED, REFERENCE);
+        assertThat(stored().getProcessedAt()).isNotNull();
+        assertThat(paymentEventService.isPaid(REFERENCE).block()).isTrue();
+    }
+
+    @Test
+    void chargeBelowTheOrderTotalIsRejected() {
+        StepVerifier.create(paymentEventService.receive(charge(5_000, "KES"))).verifyComplete();
+
+        StepVerifier.create(paymentEventService.confirm(ORDER_ID, null, REFERENCE))
+            .expectErrorMessage("Payment rejected: paid 5000 of the 10000 minor units due")
+            .verify();
+
+        verify(orderService, never()).updatePaymentStatus(any(), any(), any(), any());
+        PaymentEvent event = stored();
+        assertThat(event.getRejection()).isEqualTo("paid 5000 of the 10000 minor units due");
+        // Closed, so the retry job leaves it alone
+        assertThat(event.getProcessedAt()).isNotNull();
+        assertThat(paymentEventRepository.findPending(10, 100).collectList().block()).isEmpty();
+        assertThat(paymentEventService.isPaid(REFERENCE).block()).isFalse();
+    }
+
+    @Test
+    void chargeInAnotherCurrencyIsRejected() {
+        StepVerifier.create(paymentEventService.receive(charge(10_000, "USD"))).verifyComplete();
+
+        StepVerifier.create(paymentEventService.confirm(ORDER_ID, null, REFERENCE))
+            .expectErrorMessage("Payment rejected: paid in USD instead of KES")
+            .verify();
+
+        verify(orderService, never()).updatePaymentStatus(any(), any(), any(), any());
+        assertThat(paymentEventService.isPaid(REFERENCE).block()).isFalse();
+    }
+
+    private PaymentEvent stored() {
+        return paymentEventRepository.findByEventAndReference(PaymentEventService.CHARGE_SUCCESS, REFERENCE).block();
+    }
+
+    /**
+     * A charge.success body without order metadata, so nothing is applied until the buyer confirms
+     */
+    private static byte[] charge(long amount, String currency) {
+        return ("{\"event\":\"charge.success\",\"data\":{\"id\":1,\"status\":\"success\",\"reference\":\"" + REFERENCE + "\"," +
+                "\"amount\":" + amount + ",\"currency\":\"" + currency + "\",\"metadata\":\"\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+}
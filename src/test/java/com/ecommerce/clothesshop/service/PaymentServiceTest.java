@@ -0,0 +1,56 @@
+package com.ecommerce.clothesshop.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentServiceTest {
+    private static final String SECRET_KEY = "sk_test_0123456789abcdef";
+    private static final byte[] BODY = "{\"event\":\"charge.success\",\"data\":{\"reference\":\"ORDER-1\"}}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final PaymentService paymentService = new PaymentService();
+
+    PaymentServiceTest() {
+        ReflectionTestUtils.setField(paymentService, "paystackApiKey", SECRET_KEY);
+    }
+
+    @Test
+    void signatureOfTheBodyIsAccepted() throws Exception {
+        String signature = sign(BODY, SECRET_KEY);
+
+        assertThat(paymentService.isValidWebhookSignature(BODY, signature)).isTrue();
+        assertThat(paymentService.isValidWebhookSignature(BODY, signature.toUpperCase(Locale.ROOT))).isTrue();
+    }
+
+    @Test
+    void tamperedBodyWrongKeyOrMissingSignatureIsRejected() throws Exception {
+        byte[] tampered = new String(BODY, StandardCharsets.UTF_8).replace("ORDER-1", "ORDER-2").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(paymentService.isValidWebhookSignature(tampered, sign(BODY, SECRET_KEY))).isFalse();
+        assertThat(paymentService.isValidWebhookSignature(BODY, sign(BODY, "sk_test_other"))).isFalse();
+        assertThat(paymentService.isValidWebhookSignature(BODY, sign(BODY, SECRET_KEY).substring(1))).isFalse();
+        assertThat(paymentService.isValidWebhookSignature(BODY, null)).isFalse();
+        assertThat(paymentService.isValidWebhookSignature(BODY, "")).isFalse();
+    }
+
+    @Test
+    void orderTotalsAreChargedInMinorUnits() {
+        assertThat(PaymentService.toMinorUnits(new BigDecimal("100.00"))).isEqualTo(10_000);
+        assertThat(PaymentService.toMinorUnits(new BigDecimal("19.999"))).isEqualTo(2_000);
+    }
+
+    private static String sign(byte[] body, String key) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.config.CatalogCacheProperties;
+import com.ecommerce.clothesshop.model.Product;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductBodyCacheTest {
+    private final ProductCatalog productCatalog = mock(ProductCatalog.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductBodyCache productBodyCache = new ProductBodyCache(productCatalog, productService,
+        JsonMapper.builder().build(), CBORMapper.builder().build(), new CatalogCacheProperties());
+
+    private final CatalogSnapshot catalog = CatalogSnapshot.of(List.of(product("Classic Tee", 10)), Map.of());
+
+    ProductBodyCacheTest() {
+        when(productCatalog.current()).thenReturn(Optional.of(catalog));
+        when(productCatalog.version(any())).thenAnswer(invocation -> {
+            CatalogSnapshot snapshot = invocation.getArgument(0);
+            return new ProductCatalog.Version("\"v" + snapshot.version() + "\"", snapshot.lastModified());
+        });
+    }
+
+    @Test
+    void bodyAndVersionComeFromTheSameSnapshot() {
+        ProductBodyCache.Encoded encoded = productBodyCache.product(1L, ProductBodyCache.Format.JSON);
+        // A write lands between building the response and writing its body
+        CatalogSnapshot updated = catalog.with(List.of(product("Linen Shirt", 10)));
+        when(productCatalog.current()).thenReturn(Optional.of(updated));
+
+        assertThat(encoded.version()).map(ProductCatalog.Version::etag).contains("\"v" + catalog.version() + "\"");
+        assertThat(encoded.body().block()).asString().contains("Classic Tee").doesNotContain("Linen Shirt");
+        assertThat(productBodyCache.product(1L, ProductBodyCache.Format.JSON).body().block()).asString().contains("Linen Shirt");
+    }
+
+    @Test
+    void stockedCategoryIsEncodedFromTheCatalog() {
+        byte[] body = productBodyCache.category("SHIRTS", ProductBodyCache.Format.JSON).body().block();
+
+        assertThat(new String(body, StandardCharsets.UTF_8)).contains("Classic Tee");
+        assertThat(productBodyCache.category("SHIRTS", ProductBodyCache.Format.JSON).body().block()).isSameAs(body);
+        verify(productService, never()).getProductsByCategory("SHIRTS");
+    }
+
+    @Test
+    void unknownCategoryIsEncodedButNotKept() {
+        byte[] body = productBodyCache.category("NO-SUCH-CATEGORY", ProductBodyCache.Format.JSON).body().block();
+
+        assertThat(body).asString().isEqualTo("[]");
+        assertThat(productBodyCache.category("NO-SUCH-CATEGORY", ProductBodyCache.Format.JSON).body().block())
+            .isEqualTo(body)
+            .isNotSameAs(body);
+    }
+
+    private static Product product(String name, int stock) {
+        return Product.builder()
+            .id(1L)
+            .name(name)
+            .price(new BigDecimal("19.99"))
+            .category("SHIRTS")
+            .stockQuantity(stock)
+            .isActive(true)
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.model.Product;
+import com.ecommerce.clothesshop.repository.AnalyticsRepository;
+import com.ecommerce.clothesshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductCatalogTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final AnalyticsRepository analyticsRepository = mock(AnalyticsRepository.class);
+    private final ProductCatalog catalog = new ProductCatalog(productRepository, analyticsRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(analyticsRepository.findUnitsSoldByProduct()).thenReturn(Flux.empty());
+    }
+
+    @Test
+    void writeDuringReloadIsReplayedInsteadOfOverwritten() {
+        Product stale = product(1L, 10);
+        Product fresh = product(1L, 9);
+        // The write commits after the reload read the row
+        when(productRepository.findAll()).thenReturn(Flux.defer(() -> {
+            catalog.put(fresh);
+            return Flux.just(stale);
+        }));
+        when(productRepository.findAllById(anyIterable())).thenReturn(Flux.just(fresh));
+
+        StepVerifier.create(catalog.reload())
+            .assertNext(loaded -> assertThat(loaded.findById(1L)).map(ProductResponse::getStockQuantity).contains(9))
+            .verifyComplete();
+        assertThat(catalog.current().flatMap(current -> current.findById(1L)))
+            .map(ProductResponse::getStockQuantity).contains(9);
+    }
+
+    @Test
+    void deleteDuringReloadIsReplayed() {
+        when(productRepository.findAll()).thenReturn(Flux.defer(() -> {
+            catalog.remove(2L);
+            return Flux.just(product(1L, 10), product(2L, 5));
+        }));
+        when(productRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+
+        StepVerifier.create(catalog.reload())
+            .assertNext(loaded -> {
+                assertThat(loaded.size()).isEqualTo(1);
+                assertThat(loaded.findById(2L)).isEmpty();
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void reloadWithoutWritesIsNotReplayed() {
+        when(productRepository.findAll()).thenReturn(Flux.just(product(1L, 10)));
+
+        StepVerifier.create(catalog.reload())
+            .assertNext(loaded -> assertThat(loaded.size()).isEqualTo(1))
+            .verifyComplete();
+        StepVerifier.create(catalog.reload())
+            .assertNext(loaded -> assertThat(loaded.version()).isEqualTo(1))
+            .verifyComplete();
+    }
+
+    private static Product product(Long id, int stock) {
+        return Product.builder()
+            .id(id)
+            .name("Classic Tee " + id)
+            .price(new BigDecimal("19.99"))
+            .category("SHIRTS")
+            .stockQuantity(stock)
+            .isActive(true)
+            .build();
+    }
+}
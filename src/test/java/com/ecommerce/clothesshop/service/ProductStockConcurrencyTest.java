@@ -0,0 +1,118 @@
+package com.ecommerce.clothesshop.service;
+
+import com.ecommerce.clothesshop.dto.ProductResponse;
+import com.ecommerce.clothesshop.model.Product;
+import com.ecommerce.clothesshop.repository.ProductRepository;
+import com.ecommerce.clothesshop.repository.ProductSearchRepository;
+import com.ecommerce.clothesshop.support.TestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Many buyers checking out the same products at once, against a real PostgreSQL
+ */
+class ProductStockConcurrencyTest {
+    private static final int BUYERS = 64;
+
+    private static TestDatabase database;
+
+    private ProductRepository productRepository;
+    private ProductService productService;
+
+    @BeforeAll
+    static void startDatabase() {
+        database = TestDatabase.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        database.clear();
+        productRepository = database.repository(ProductRepository.class);
+        productService = new ProductService(productRepository, mock(ProductSearchRepository.class),
+            mock(AnalyticsCacheService.class), mock(ProductCatalog.class));
+    }
+
+    @Test
+    void concurrentSingleProductPurchasesNeverOversell() {
+        Product product = save("Classic Tee", 10);
+
+        List<ProductResponse> sold = Flux.range(0, BUYERS)
+            .flatMap(buyer -> productService.updateStock(product.getId(), 1)
+                .subscribeOn(Schedulers.parallel())
+                .onErrorResume(e -> Mono.empty()), BUYERS)
+            .collectList()
+            .block();
+
+        assertThat(sold).hasSize(10);
+        assertThat(sold).extracting(ProductResponse::getStockQuantity).doesNotHaveDuplicates();
+        assertThat(stockOf(product)).isZero();
+    }
+
+    @Test
+    void concurrentMultiLineCheckoutsNeverOversellAndNeverHalfApply() {
+        Product shirt = save("Oxford Shirt", 10);
+        Product jeans = save("Slim Jeans", 25);
+
+        // Every order takes one shirt and two pairs of jeans: the shirts run out after 10 orders, before the jeans do
+        List<Boolean> outcomes = Flux.range(0, BUYERS)
+            .flatMap(buyer -> productService.decrementStock(Map.of(shirt.getId(), 1, jeans.getId(), 2))
+                .as(database.transactionalOperator()::transactional)
+                .thenReturn(true)
+                .subscribeOn(Schedulers.parallel())
+                .onErrorReturn(false), BUYERS)
+            .collectList()
+            .block();
+
+        long placed = outcomes.stream().filter(Boolean::booleanValue).count();
+        assertThat(placed).isEqualTo(10);
+        assertThat(stockOf(shirt)).isZero();
+        // A failed order rolls back its jeans line too, so the jeans left match the orders placed
+        assertThat(stockOf(jeans)).isEqualTo(25 - 2 * placed);
+    }
+
+    @Test
+    void insufficientStockIsReportedAndUnknownProductIsEmpty() {
+        Product product = save("Bomber Jacket", 1);
+
+        StepVerifier.create(productService.updateStock(product.getId(), 2))
+            .expectErrorMessage("Insufficient stock")
+            .verify();
+        StepVerifier.create(productService.updateStock(product.getId() + 1000, 1))
+            .verifyComplete();
+        assertThat(stockOf(product)).isEqualTo(1);
+    }
+
+    private Product save(String name, int stock) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal("19.99"))
+                .category("SHIRTS")
+                .stockQuantity(stock)
+                .isActive(true)
+                .build())
+            .block();
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).block().getStockQuantity();
+    }
+}
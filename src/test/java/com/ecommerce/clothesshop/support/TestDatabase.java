@@ -0,0 +1,86 @@
+package com.ecommerce.clothesshop.support;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A throwaway PostgreSQL server with schema.sql applied, for tests of what only the
+ * database can guarantee: conditional updates, row locks and ON CONFLICT.
+ * Repositories are created directly, without starting the application context.
+ */
+public final class TestDatabase implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final R2dbcRepositoryFactory repositoryFactory;
+    private final TransactionalOperator transactionalOperator;
+
+    private TestDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                new PostgresqlConnectionFactory(PostgresqlConnectionConfiguration.builder()
+                    .host("localhost")
+                    .port(postgres.getPort())
+                    .username("postgres")
+                    .database("postgres")
+                    .build()))
+            .maxSize(32)
+            .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.repositoryFactory = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(databaseClient, PostgresDialect.INSTANCE));
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionPool).block();
+    }
+
+    public static TestDatabase start() {
+        try {
+            return new TestDatabase(EmbeddedPostgres.builder().start());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+        }
+    }
+
+    public DatabaseClient databaseClient() {
+        return databaseClient;
+    }
+
+    public TransactionalOperator transactionalOperator() {
+        return transactionalOperator;
+    }
+
+    public <T> T repository(Class<T> repositoryInterface) {
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    /**
+     * Empty every table, so each test starts from the same state
+     */
+    public void clear() {
+        databaseClient.sql("DO $$ DECLARE t TEXT; BEGIN " +
+                           "FOR t IN SELECT tablename FROM pg_tables WHERE schemaname = 'public' LOOP " +
+                           "EXECUTE 'TRUNCATE TABLE ' || quote_ident(t) || ' RESTART IDENTITY CASCADE'; " +
+                           "END LOOP; END $$")
+            .then()
+            .block();
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionPool.dispose();
+        postgres.close();
+    }
+}